@@ -21,6 +21,7 @@ dependencies {
 	implementation(libs.spring.boot.starter.web)
 	implementation(libs.spring.boot.starter.data.jpa)
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	developmentOnly(libs.boot.spring.boot.devtools)
 	compileOnly(libs.org.projectlombok.lombok)
 	annotationProcessor(libs.org.projectlombok.lombok2)
@@ -34,7 +35,12 @@ dependencies {
 	runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
 	testImplementation("org.junit.jupiter:junit-jupiter:5.10.0")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+	testRuntimeOnly("com.h2database:h2")
 	implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.17.1")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("com.github.ben-manes.caffeine:jcache")
+	implementation("org.hibernate.orm:hibernate-jcache")
+	implementation("org.hibernate.orm:hibernate-micrometer")
 	
 	// Email dependencies
 	implementation("org.springframework.boot:spring-boot-starter-mail") }
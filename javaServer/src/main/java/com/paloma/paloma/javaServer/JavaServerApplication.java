@@ -2,12 +2,22 @@ package com.paloma.paloma.javaServer;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Map;
 
 @SpringBootApplication
+@EnableScheduling
 public class JavaServerApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(JavaServerApplication.class, args);
+		SpringApplication application = new SpringApplication(JavaServerApplication.class);
+		// Defaults only, any property source of the deployment overrides them. The actuator
+		// endpoints are served on their own port, which must not be reachable from outside.
+		application.setDefaultProperties(Map.of(
+				"management.server.port", "8081",
+				"management.endpoints.web.exposure.include", "health,metrics,prometheus"));
+		application.run(args);
 
 	}
 
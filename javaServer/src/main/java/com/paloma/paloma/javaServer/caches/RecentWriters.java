@@ -0,0 +1,61 @@
+package com.paloma.paloma.javaServer.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Users who wrote to the primary database within the last
+ * {@code paloma.datasource.read-your-writes-window}. Their reads stay on the primary for that
+ * long, so a user never reads from a replica that has not caught up with their own changes.
+ */
+@Component
+public class RecentWriters {
+
+    private final Cache<UUID, Boolean> writers;
+
+    public RecentWriters(@Value("${paloma.datasource.read-your-writes-window:5s}") Duration window,
+                         @Value("${paloma.datasource.read-your-writes-max-users:100000}") long maxUsers) {
+        this.writers = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Records that a user just wrote, restarting their window.
+     *
+     * @param userId The id of the user, ignored if null
+     */
+    public void markWrite(UUID userId) {
+        if (userId != null) {
+            writers.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * @param userId The id of the user, may be null
+     * @return True if the user wrote within the window
+     */
+    public boolean wroteRecently(UUID userId) {
+        return userId != null && writers.getIfPresent(userId) != null;
+    }
+
+    /**
+     * @return The id of the user authenticated on the current thread, or null
+     */
+    public static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.userId();
+        }
+        return null;
+    }
+}
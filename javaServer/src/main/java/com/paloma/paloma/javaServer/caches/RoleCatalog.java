@@ -0,0 +1,68 @@
+package com.paloma.paloma.javaServer.caches;
+
+import com.paloma.paloma.javaServer.entities.Role;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.repositories.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The fixed set of {@link Role} rows, one per {@link RoleType}.
+ * The rows are created once if they are missing and then held in memory for the lifetime of the
+ * application, so assigning a role never reads or writes the {@code roles} table.
+ */
+@Component
+public class RoleCatalog {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<RoleType, Role> roles = Map.of();
+
+    public RoleCatalog(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Seeds missing role rows and loads all of them.
+     */
+    @PostConstruct
+    public void load() {
+        Map<RoleType, Role> loaded = new EnumMap<>(RoleType.class);
+        for (RoleType roleType : RoleType.values()) {
+            loaded.put(roleType, findOrCreate(roleType));
+        }
+        roles = Map.copyOf(loaded);
+    }
+
+    /**
+     * Returns the row for a role type. The entity is detached and shared, use it only as
+     * the target of an association and never modify it.
+     *
+     * @param roleType The role type
+     * @return The role row
+     */
+    public Role get(RoleType roleType) {
+        Role role = roles.get(roleType);
+        if (role == null) {
+            throw new IllegalStateException("Role catalog has not been loaded");
+        }
+        return role;
+    }
+
+    private Role findOrCreate(RoleType roleType) {
+        return roleRepository.findByRoleType(roleType).orElseGet(() -> {
+            try {
+                Role role = new Role();
+                role.setRoleType(roleType);
+                return roleRepository.saveAndFlush(role);
+            } catch (DataIntegrityViolationException e) {
+                // another instance seeded the same row first
+                return roleRepository.findByRoleType(roleType).orElseThrow(() -> e);
+            }
+        });
+    }
+}
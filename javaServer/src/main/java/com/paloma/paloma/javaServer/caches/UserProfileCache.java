@@ -0,0 +1,88 @@
+package com.paloma.paloma.javaServer.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of {@link UserSnapshot}s keyed by user id.
+ * Entries are bounded in number and expire after a fixed time to live, so a missed
+ * invalidation can only serve stale profile fields for that long.
+ * Every write to a user's profile must call {@link #evict(UUID)}.
+ */
+@Component
+public class UserProfileCache {
+
+    private final UserRepository userRepository;
+
+    private final Cache<UUID, UserSnapshot> snapshots;
+
+    public UserProfileCache(UserRepository userRepository,
+                            @Value("${paloma.cache.user-profiles.ttl:10m}") Duration ttl,
+                            @Value("${paloma.cache.user-profiles.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publishes hit/miss/eviction counts under the {@code user.profiles} cache name.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "user.profiles");
+    }
+
+    /**
+     * Returns the profile of a user, loading it from the database on a miss.
+     * Unknown users are not cached.
+     *
+     * @param userId The id of the user
+     * @return The snapshot, or empty if the user does not exist
+     */
+    public Optional<UserSnapshot> find(UUID userId) {
+        return Optional.ofNullable(snapshots.get(userId,
+                id -> userRepository.findById(id).map(UserSnapshot::of).orElse(null)));
+    }
+
+    /**
+     * Drops the cached profile of a user. When called inside a transaction the entry is
+     * dropped again after commit, so a concurrent read cannot re-cache the old values.
+     *
+     * @param userId The id of the user whose profile changed
+     */
+    public void evict(UUID userId) {
+        snapshots.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops every cached profile.
+     */
+    public void evictAll() {
+        snapshots.invalidateAll();
+    }
+}
@@ -0,0 +1,21 @@
+package com.paloma.paloma.javaServer.caches;
+
+import com.paloma.paloma.javaServer.entities.User;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of the profile fields of a {@link User}.
+ * Safe to share between requests, unlike the managed entity.
+ *
+ * @param id The id of the user
+ * @param username The user's username
+ * @param email The user's email address
+ * @param fullName The user's full name
+ */
+public record UserSnapshot(UUID id, String username, String email, String fullName) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getEmail(), user.getFullName());
+    }
+}
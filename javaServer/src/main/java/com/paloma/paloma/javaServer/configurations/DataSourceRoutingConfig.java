@@ -0,0 +1,75 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.paloma.paloma.javaServer.caches.RecentWriters;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured data source with one pool for the primary and one per
+ * replica listed in {@code paloma.datasource.replica-urls}, routed by {@link ReadWriteRoutingDataSource}.
+ * Enabled with {@code paloma.datasource.routing.enabled=true}; replicas use the primary's
+ * credentials unless {@code paloma.datasource.replica-username}/{@code -password} are set.
+ * Each pool publishes the {@code hikaricp.connections.*} metrics tagged with its route as pool name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "paloma.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            @Value("${paloma.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${paloma.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+            @Value("${paloma.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+            @Value("${paloma.datasource.pool-size:10}") int poolSize,
+            RecentWriters recentWriters,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = pool(properties, properties.determineUrl(), properties.determineUsername(),
+                properties.determinePassword(), ReadWriteRoutingDataSource.PRIMARY, poolSize, meterRegistry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool(properties, replicaUrls.get(i).trim(), replicaUsername, replicaPassword,
+                    ReadWriteRoutingDataSource.replicaKey(i), poolSize, meterRegistry);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, recentWriters);
+    }
+
+    /**
+     * The data source used by JPA and JDBC. Connections are only fetched from a pool when the
+     * first statement runs, after the transaction has been marked read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String url, String username, String password,
+                                         String name, int poolSize, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName(name);
+        dataSource.setMaximumPoolSize(poolSize);
+        PersistenceConfig.enableBatchRewriting(dataSource);
+        meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+        return dataSource;
+    }
+}
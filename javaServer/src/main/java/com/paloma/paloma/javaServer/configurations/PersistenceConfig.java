@@ -0,0 +1,50 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistenceConfig {
+
+    /**
+     * Lets Hibernate send inserts and updates in JDBC batches. Ordering groups the statements of
+     * one flush by table so a flush that interleaves several tables still forms full batches.
+     * Batching works because ids are generated in memory (see {@code UuidV7}), not by the database.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer(@Value("${paloma.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, batchSize);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+        };
+    }
+
+    /**
+     * Makes MySQL Connector/J rewrite a JDBC batch of inserts into one multi-row INSERT instead of
+     * sending the statements one by one, which is what turns batching into fewer round trips.
+     */
+    @Bean
+    public static BeanPostProcessor rewriteBatchedStatementsPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    enableBatchRewriting(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static void enableBatchRewriting(HikariDataSource dataSource) {
+        if (dataSource.getJdbcUrl() != null && dataSource.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            dataSource.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+    }
+}
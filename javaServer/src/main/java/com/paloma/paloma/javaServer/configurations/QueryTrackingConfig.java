@@ -0,0 +1,65 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.paloma.paloma.javaServer.utilites.QueryTracker;
+import org.hibernate.SessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Feeds every statement Hibernate prepares and executes into {@link QueryTracker}, which counts
+ * them against per-request budgets and logs slow ones.
+ */
+@Configuration
+public class QueryTrackingConfig {
+
+    /**
+     * @param slowQuery  Statements taking at least this long are logged
+     * @param sampleRate The fraction of slow statements logged, to bound the log volume under load
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryTrackingCustomizer(
+            @Value("${paloma.query-budget.slow-query:200ms}") Duration slowQuery,
+            @Value("${paloma.query-budget.slow-query-sample-rate:1.0}") double sampleRate) {
+        QueryTracker.configureSlowQueryLog(slowQuery, sampleRate);
+        StatementInspector inspector = sql -> {
+            QueryTracker.statementPrepared(sql);
+            return sql;
+        };
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, ExecutionTimingListener.class.getName());
+        };
+    }
+
+    /**
+     * Created by Hibernate for every session, so it keeps no state of its own.
+     */
+    public static class ExecutionTimingListener implements SessionEventListener {
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            QueryTracker.executionStarted();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            QueryTracker.executionFinished();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            QueryTracker.executionStarted();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            QueryTracker.executionFinished();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.paloma.paloma.javaServer.caches.RecentWriters;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas, round robin, and everything else to the primary.
+ * Read-write transactions of an authenticated user mark that user in {@link RecentWriters}, and
+ * that user's read-only transactions then stay on the primary until the window has passed.
+ * <p>
+ * The route is chosen when a connection is requested, so this must be wrapped in a
+ * {@code LazyConnectionDataSourceProxy}; otherwise the transaction manager fetches the connection
+ * before the transaction is marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final List<DataSource> targets = new ArrayList<>();
+    private final RecentWriters recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, RecentWriters recentWriters) {
+        this.recentWriters = recentWriters;
+        Map<Object, Object> lookup = new HashMap<>();
+        lookup.put(PRIMARY, primary);
+        targets.add(primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = replicaKey(i);
+            lookup.put(key, replicas.get(i));
+            replicaKeys.add(key);
+            targets.add(replicas.get(i));
+        }
+        setTargetDataSources(lookup);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    static String replicaKey(int index) {
+        return "replica-" + (index + 1);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = RecentWriters.currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recentWriters.markWrite(userId);
+            }
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || recentWriters.wroteRecently(userId)) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    /**
+     * Closes the connection pools behind the routes.
+     */
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource target : targets) {
+            if (target instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.BaseStream;
+
+/**
+ * Records how many rows each call of a repository returns, and counts the calls that throw.
+ * Sits on the repository proxy next to Spring Boot's invocation timer, so it sees what the
+ * caller receives: a list, a page, an optional or a single result.
+ */
+final class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final String repository;
+    private final Map<Method, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    RepositoryMetricsInterceptor(Supplier<MeterRegistry> meterRegistry, Class<?> repositoryInterface) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MeterRegistry registry = meterRegistry.get();
+        if (registry == null) {
+            return invocation.proceed();
+        }
+        Method method = invocation.getMethod();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            Counter.builder(RepositoryMetricsConfig.ERRORS)
+                    .description("Repository calls that threw, by exception")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+            throw e;
+        }
+        long rows = rows(method, result);
+        if (rows >= 0) {
+            rowSummaries.computeIfAbsent(method, key -> DistributionSummary.builder(RepositoryMetricsConfig.ROWS)
+                            .description("Rows returned per repository call")
+                            .baseUnit("rows")
+                            .tag("repository", repository)
+                            .tag("method", key.getName())
+                            .register(registry))
+                    .record(rows);
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of rows in a query result, or -1 for results that are not rows, such as
+     * counts, flags and streams that have not been read yet
+     */
+    static long rows(Method method, Object result) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Iterable<?> || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
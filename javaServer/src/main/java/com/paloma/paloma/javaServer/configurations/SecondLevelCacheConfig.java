@@ -0,0 +1,83 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache for reference and slow-changing rows, held in Caffeine
+ * through JCache. Every region is created here with a maximum size (evicting by Caffeine's
+ * frequency and recency policy) and a time to live, and Hibernate refuses to start if an entity
+ * names a region that is not listed, so no cache can grow without a bound.
+ * Hit and miss counts per region are published by actuator as
+ * {@code hibernate.second.level.cache.requests} and {@code hibernate.query.cache.requests}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String ROLES = "roles";
+    public static final String USER_ROLES = "user_roles";
+    public static final String ALERT_SENSITIVITY = "alert_sensitivity";
+    public static final String MEDICATIONS = "medications";
+
+    /**
+     * The fixed role rows, see {@code RoleCatalog}.
+     */
+    private static final long ROLES_MAX_SIZE = 100;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${paloma.jpa.cache.ttl:30m}") Duration ttl,
+                                              @Value("${paloma.jpa.cache.max-size:10000}") long maxSize,
+                                              @Value("${paloma.jpa.cache.query-max-size:10000}") long queryMaxSize) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        createRegion(cacheManager, ROLES, ROLES_MAX_SIZE, null);
+        createRegion(cacheManager, USER_ROLES, maxSize, ttl);
+        createRegion(cacheManager, ALERT_SENSITIVITY, maxSize, ttl);
+        createRegion(cacheManager, MEDICATIONS, maxSize, ttl);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, queryMaxSize, ttl);
+        // one entry per table; evicting one would make cached query results look current
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, maxSize, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            CacheManager hibernateCacheManager,
+            @Value("${paloma.jpa.cache.statistics:true}") boolean statistics) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL);
+            properties.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, statistics);
+        };
+    }
+
+    static void createRegion(CacheManager cacheManager, String name, long maxSize, Duration ttl) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        // Hibernate caches immutable entries, copying them on every read and write is wasted work
+        configuration.setStoreByValue(false);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -1,6 +1,9 @@
 package com.paloma.paloma.javaServer.configurations;
 
 import com.paloma.paloma.javaServer.filters.JwtAuthFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,20 +24,35 @@ public class SecurityConfig {
         this.jwtAuthFilter = jwtAuthFilter;
     }
 
+    /**
+     * Raising the strength is safe at any time: existing hashes still verify and are
+     * re-encoded with the new cost on the user's next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(); // Used in login
+    public PasswordEncoder passwordEncoder(@Value("${paloma.password-hashing.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength); // Used in login
     }
 
+    /**
+     * Of the actuator endpoints only health is open. Prometheus scrapers carry no user token, so
+     * {@code paloma.management.public-prometheus} opens that endpoint too; set it only where the
+     * management port is reachable from the scraper alone. Every other endpoint needs a token.
+     */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${paloma.management.public-prometheus:false}") boolean publicPrometheus)
+            throws Exception {
         return http
                 .csrf(AbstractHttpConfigurer::disable)
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/**", "/", "/index.html",
-                                "/static/**", "/index.css", "/index.js", "/auth/register", "/db").permitAll()
-                        .anyRequest().authenticated()
-                )
+                .authorizeHttpRequests(auth -> {
+                    auth.requestMatchers("/auth/**", "/", "/index.html",
+                                    "/static/**", "/index.css", "/index.js", "/auth/register", "/db").permitAll()
+                            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll();
+                    if (publicPrometheus) {
+                        auth.requestMatchers(EndpointRequest.to("prometheus")).permitAll();
+                    }
+                    auth.anyRequest().authenticated();
+                })
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
@@ -1,14 +1,22 @@
 package com.paloma.paloma.javaServer.configurations;
 
+import com.paloma.paloma.javaServer.filters.QueryBudgetInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+
+    public WebConfig(QueryBudgetInterceptor queryBudgetInterceptor) {
+        this.queryBudgetInterceptor = queryBudgetInterceptor;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -25,4 +33,9 @@ public class WebConfig implements WebMvcConfigurer {
             .ignoreAcceptHeader(false)
             .mediaType("json", MediaType.APPLICATION_JSON);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryBudgetInterceptor);
+    }
 }
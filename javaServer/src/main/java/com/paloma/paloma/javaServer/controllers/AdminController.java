@@ -0,0 +1,93 @@
+package com.paloma.paloma.javaServer.controllers;
+
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.RebuildScoreHistoryResponse;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import com.paloma.paloma.javaServer.services.BulkProvisioningService;
+import com.paloma.paloma.javaServer.services.RoleManagementService;
+import com.paloma.paloma.javaServer.services.ScoreHistoryService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Controller for operations reserved to users with the {@link RoleType#ADMIN} role.
+ */
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+    static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private final BulkProvisioningService bulkProvisioningService;
+    private final RoleManagementService roleManagementService;
+    private final ScoreHistoryService scoreHistoryService;
+
+    /**
+     * Creates many accounts from one upload.
+     * The body is either NDJSON, one {@code BulkUserRow} object per line, or CSV with a header row
+     * naming the columns {@code username,email,fullName,password,roleType}. The response is NDJSON
+     * with one result per row and is streamed while the upload is still being read.
+     *
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @param contentType The content type of the upload
+     * @param request The underlying request, read as a stream
+     * @return ResponseEntity streaming the per-row results, 401 without a valid token,
+     * or 403 if the caller is not an administrator
+     * @throws IOException If the upload cannot be opened
+     */
+    @PostMapping(value = "/users/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<?> bulkProvision(@AuthenticationPrincipal AuthenticatedUser principal,
+                                           @RequestHeader("Content-Type") String contentType,
+                                           HttpServletRequest request) throws IOException {
+        ResponseEntity<?> denied = denyUnlessAdmin(principal);
+        if (denied != null) {
+            return denied;
+        }
+
+        BulkProvisioningService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? BulkProvisioningService.Format.CSV
+                : BulkProvisioningService.Format.NDJSON;
+        InputStream upload = request.getInputStream();
+        StreamingResponseBody results = out -> bulkProvisioningService.provision(upload, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(results);
+    }
+
+    /**
+     * Regenerates every user's score history from the stored check-ins.
+     *
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @return ResponseEntity with the number of histories rebuilt, 401 without a valid token,
+     * or 403 if the caller is not an administrator
+     */
+    @PostMapping("/score-history/rebuild")
+    public ResponseEntity<?> rebuildScoreHistory(@AuthenticationPrincipal AuthenticatedUser principal) {
+        ResponseEntity<?> denied = denyUnlessAdmin(principal);
+        if (denied != null) {
+            return denied;
+        }
+        int rebuilt = scoreHistoryService.rebuildAll();
+        return ResponseEntity.ok(new RebuildScoreHistoryResponse(true, "Score histories rebuilt", rebuilt));
+    }
+
+    private ResponseEntity<?> denyUnlessAdmin(AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authorization header missing or malformed");
+        }
+        if (!roleManagementService.userHasRole(principal.userId(), RoleType.ADMIN)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Administrator role required");
+        }
+        return null;
+    }
+}
@@ -6,9 +6,14 @@ import com.paloma.paloma.javaServer.dataTransferObjects.responses.JwtResponse;
 import com.paloma.paloma.javaServer.dataTransferObjects.responses.LoginResponse;
 import com.paloma.paloma.javaServer.dataTransferObjects.responses.RegisterResponse;
 import com.paloma.paloma.javaServer.exceptions.AuthenticationException;
+import com.paloma.paloma.javaServer.exceptions.LoginThrottledException;
+import com.paloma.paloma.javaServer.exceptions.PasswordHashingUnavailableException;
 import com.paloma.paloma.javaServer.exceptions.UserException;
+import com.paloma.paloma.javaServer.services.LoginThrottleService;
 import com.paloma.paloma.javaServer.services.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,15 +27,18 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AuthController {
     private static final String INVALID_CREDENTIALS_MESSAGE = "Invalid credentials";
+    private static final String RETRY_AFTER_SECONDS = "1";
 
     private final UserService userService;
+    private final LoginThrottleService loginThrottleService;
 
 
     /**
      * Registers a new user in the system.
      * 
      * @param request The registration request containing user details
-     * @return ResponseEntity with a success message or information obout an error message
+     * @return ResponseEntity with a success message or information obout an error message,
+     * or 503 if the password hashing queue is full
      */
     @PostMapping("/register")
     public ResponseEntity<RegisterResponse> register(@RequestBody RegisterRequest request) {
@@ -41,24 +49,41 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
                     new RegisterResponse(e.getMessage())
             );
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(new RegisterResponse(e.getMessage()));
         }
     }
 
     /**
-     * Authenticates a user and returns a JWT token.
+     * Authenticates a user and returns a JWT token together with the refresh token for it.
      * 
      * @param request The login request containing user credentials
-     * @return ResponseEntity with the JWT token or error message
+     * @param httpRequest The underlying request, used for the client address
+     * @return ResponseEntity with the JWT token or error message,
+     * 429 if the identifier or client made too many attempts,
+     * or 503 if the password hashing queue is full
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<JwtResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         try {
+            loginThrottleService.checkAttempt(request.getEmailOrUsername(), httpRequest.getRemoteAddr());
             LoginResponse loginResponse = userService.login(request);
-            return ResponseEntity.ok(new JwtResponse(loginResponse.getAccessToken(), loginResponse.getMessage()));
+            return ResponseEntity.ok(new JwtResponse(
+                    loginResponse.getAccessToken(), loginResponse.getMessage(), loginResponse.getRefreshToken()));
         } catch (AuthenticationException e) {
             return ResponseEntity
                     .status(HttpStatus.UNAUTHORIZED)
                     .body(new JwtResponse(INVALID_CREDENTIALS_MESSAGE));
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new JwtResponse(null, e.getMessage()));
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(new JwtResponse(null, e.getMessage()));
         }
     }
 
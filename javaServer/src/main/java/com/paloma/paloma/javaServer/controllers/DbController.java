@@ -1,10 +1,12 @@
 package com.paloma.paloma.javaServer.controllers;
 
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.ClearDatabaseResponse;
 import com.paloma.paloma.javaServer.services.DbClearService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -23,16 +25,19 @@ public class DbController {
      * This endpoint is intended for testing purposes only and should not be used in production.
      * No authentication is required for this endpoint.
      *
-     * @return ResponseEntity with a success message
+     * @param mode {@code DELETE} (default) to clear in one transaction, {@code TRUNCATE} to clear
+     *             large tables faster without being able to roll back
+     * @return ResponseEntity with the rows removed per table and the time taken
      */
     @DeleteMapping
-    public ResponseEntity<String> clearAllData() {
+    public ResponseEntity<ClearDatabaseResponse> clearAllData(
+            @RequestParam(defaultValue = "DELETE") DbClearService.Mode mode) {
         try {
-            dbClearService.clearAllData();
-            return ResponseEntity.ok("Database cleared successfully");
+            return ResponseEntity.ok(dbClearService.clearAllData(mode));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
-                    .body("Failed to clear database: " + e.getMessage());
+                    .body(new ClearDatabaseResponse(false, "Failed to clear database: " + e.getMessage(),
+                            mode.name(), 0, null));
         }
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,24 @@
 package com.paloma.paloma.javaServer.controllers;
 
-import com.paloma.paloma.javaServer.controllers.accessToken.GetAccessToken;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.*;
 import com.paloma.paloma.javaServer.dataTransferObjects.responses.*;
-import com.paloma.paloma.javaServer.entities.RefreshAuth;
 import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.exceptions.PasswordHashingUnavailableException;
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
 import com.paloma.paloma.javaServer.exceptions.UnauthorizedException;
 import com.paloma.paloma.javaServer.exceptions.UserException;
+import com.paloma.paloma.javaServer.filters.QueryBudget;
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import com.paloma.paloma.javaServer.services.HistoryService;
 import com.paloma.paloma.javaServer.services.RefreshService;
+import com.paloma.paloma.javaServer.services.TokenRevocationService;
 import com.paloma.paloma.javaServer.services.UserService;
-import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -30,40 +35,39 @@ import java.util.function.Function;
 @RequiredArgsConstructor
 public class InSessionController {
 
+    /**
+     * A history page is one query, plus loading the caller's profile on a cache miss.
+     */
+    private static final int HISTORY_QUERY_BUDGET = 3;
 
     private final RefreshService refreshService;
-    private final JwtUtil jwtUtil;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+    private final HistoryService historyService;
 
 
     /**
      * Refreshes the user's access token using their refresh token.
+     * The refresh token is rotated on every successful refresh and the new one is returned.
      * 
-     * @param authHeader The Authorization header containing the current access token
-     * @return ResponseEntity with a new access token or error message
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @param request The refresh token issued at login or by the previous refresh
+     * @return ResponseEntity with a new access and refresh token or error message
      */
     @PostMapping("/refresh")
-    public ResponseEntity<?> refresh(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> refresh(@AuthenticationPrincipal AuthenticatedUser principal,
+                                     @RequestBody RefreshRequest request) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new JwtResponse(null,"Invalid token"));
+        }
         try {
-            String token = GetAccessToken.getAccessToken(authHeader);
-            UUID userId = jwtUtil.validateTokenAndGetUserId(token);
-            RefreshAuth refreshAuth = refreshService.findByUserID(userId)
-                    .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
-
-            String refreshToken = refreshAuth.getToken();
-            try {
-                return refreshService.validate(refreshToken)
-                        .map(user -> {
-                            String newAccessToken = jwtUtil.generateAccessToken(user.getId());
-                            return ResponseEntity
-                                    .ok(new JwtResponse(newAccessToken, "Successfully refreshed token"));
-                        })
-                        .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                                .body(new JwtResponse(null,"Invalid refresh token")));
-            } catch (Exception e) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(new JwtResponse(null,"Invalid refresh token"));
-            }
+            return refreshService.refreshAccessToken(principal.userId(), request.getRefreshToken())
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                            .body(new JwtResponse(null,"Invalid refresh token")));
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new JwtResponse(null,"Invalid token"));
@@ -72,15 +76,16 @@ public class InSessionController {
     }
 
     /**
-     * Logs out a user by revoking all their refresh tokens.
+     * Logs out a user by revoking all their refresh tokens and the access token used for the call.
      * 
-     * @param authHeader The Authorization header containing the access token
+     * @param principal The caller resolved from the access token by the authentication filter
      * @return ResponseEntity with success message or error message
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestHeader("Authorization") String authHeader) {
-        return executeWithUser(authHeader, user -> {
+    public ResponseEntity<?> logout(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return executeWithUserReference(principal, user -> {
             refreshService.revokeTokens(user);
+            tokenRevocationService.revoke(principal.tokenId(), principal.expiration());
             return ResponseEntity.ok("Successfully logged out and revoked all refresh tokens");
         });
     }
@@ -88,15 +93,19 @@ public class InSessionController {
     /**
      * Updates the email address of an authenticated user.
      * 
-     * @param authHeader The Authorization header containing the access token
+     * @param principal The caller resolved from the access token by the authentication filter
      * @param updateEmailRequest The request containing the new email
-     * @return ResponseEntity with success message or error message
+     * @return ResponseEntity with success message, or 400 if the email is invalid or taken
      */
     @PutMapping("/update/email")
-    public ResponseEntity<?> updateEmail(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updateEmail(@AuthenticationPrincipal AuthenticatedUser principal,
                                          @RequestBody UpdateEmailRequest updateEmailRequest) {
-        return executeWithUser(authHeader, user -> {
-            userService.updateEmail(user, updateEmailRequest.getNewEmail());
+        return executeWithUser(principal, user -> {
+            try {
+                userService.updateEmail(user, updateEmailRequest.getNewEmail());
+            } catch (UserException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
             return ResponseEntity.ok("Successfully updated email");
         });
     }
@@ -104,14 +113,14 @@ public class InSessionController {
     /**
      * Updates the password of an authenticated user.
      * 
-     * @param authHeader The Authorization header containing the access token
+     * @param principal The caller resolved from the access token by the authentication filter
      * @param updatePasswordRequest The request containing the old and new passwords
      * @return ResponseEntity with success message or error message
      */
     @PutMapping("/update/password")
-    public ResponseEntity<?> updatePassword(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updatePassword(@AuthenticationPrincipal AuthenticatedUser principal,
                                             @RequestBody UpdatePasswordRequest updatePasswordRequest) {
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             userService.updatePassword(user,
                     updatePasswordRequest.getOldPassword(),
                     updatePasswordRequest.getNewPassword());
@@ -120,10 +129,10 @@ public class InSessionController {
     }
 
     @PutMapping("/update/sensitivityLevel")
-    public ResponseEntity<?> updateSensitivityLevel(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updateSensitivityLevel(@AuthenticationPrincipal AuthenticatedUser principal,
                                                     @RequestBody UpdateAlertSensitivityRequest
                                                             updateAlertSensitivityRequest) {
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             UpdateAlertSensitivityResponse response = userService.updateSensitivity(user,
                     updateAlertSensitivityRequest.getSensitivityLevel());
             if (response.isSuccess()) {
@@ -137,15 +146,19 @@ public class InSessionController {
     /**
      * Updates the username of an authenticated user.
      * 
-     * @param authHeader The Authorization header containing the access token
+     * @param principal The caller resolved from the access token by the authentication filter
      * @param updateUsernameRequest The request containing the new username
-     * @return ResponseEntity with success message or error message
+     * @return ResponseEntity with success message, or 400 if the username is invalid or taken
      */
     @PutMapping("/update/username")
-    public ResponseEntity<?> updateUsername(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updateUsername(@AuthenticationPrincipal AuthenticatedUser principal,
                                             @RequestBody UpdateUsernameRequest updateUsernameRequest) {
-        return executeWithUser(authHeader, user -> {
-            userService.updateUsername(user, updateUsernameRequest.getNewUsername());
+        return executeWithUser(principal, user -> {
+            try {
+                userService.updateUsername(user, updateUsernameRequest.getNewUsername());
+            } catch (UserException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
             return ResponseEntity.ok("Successfully updated username");
         });
     }
@@ -155,14 +168,14 @@ public class InSessionController {
      * If the contact already exists in the system, a relationship is created.
      * If the contact doesn't exist, a new user is created and invitations are sent.
      * 
-     * @param authHeader The Authorization header containing the access token
+     * @param principal The caller resolved from the access token by the authentication filter
      * @param addTrustedContactRequest The request containing contact details
      * @return ResponseEntity with success/failure response and details
      */
     @PostMapping("/add/contact")
-    public ResponseEntity<?> addContact(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> addContact(@AuthenticationPrincipal AuthenticatedUser principal,
                                         @RequestBody AddTrustedContactRequest addTrustedContactRequest){
-        return executeWithUser(authHeader, user ->{
+        return executeWithUserReference(principal, user ->{
             AddContactResponse response = userService.addContact(user, addTrustedContactRequest.getEmail(),
                     addTrustedContactRequest.getMessageOnNotify());
             
@@ -175,9 +188,9 @@ public class InSessionController {
     }
 
     @PostMapping("/add/sensitivityLevel")
-    public ResponseEntity<?> addSensitivityLevel(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> addSensitivityLevel(@AuthenticationPrincipal AuthenticatedUser principal,
                                                  @RequestBody AddAlertSensitivityRequest addAlertSensitivityRequest){
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             AddAlertSensitivityResponse response = userService.addAlertSensitivity(user,
                     addAlertSensitivityRequest.getSensitivityLevel());
             if (response.isSuccess()) {
@@ -189,9 +202,9 @@ public class InSessionController {
     }
 
     @DeleteMapping("/remove/contact")
-    public ResponseEntity<?> removeContact(@RequestHeader("Authorization") String authHeader, 
+    public ResponseEntity<?> removeContact(@AuthenticationPrincipal AuthenticatedUser principal, 
                                            @RequestBody RemoveTrustedContactRequest removeTrustedContactRequest) {
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             RemoveContactResponse response = userService.
                     removeContact(user, removeTrustedContactRequest.getEmail());
 
@@ -205,14 +218,14 @@ public class InSessionController {
     }
 
     @PostMapping("/daily/checkin")
-    public ResponseEntity<?> dailyCheckin(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> dailyCheckin(@AuthenticationPrincipal AuthenticatedUser principal,
                                           @RequestBody DailyCheckinRequest dailyCheckinRequest) {
         Integer energyScore = dailyCheckinRequest.getEnergyScore();
         Integer moodScore = dailyCheckinRequest.getMoodScore();
         Integer motivationScore = dailyCheckinRequest.getMotivationScore();
         Integer suicidalScore = dailyCheckinRequest.getSuicidalScore();
         String notes = dailyCheckinRequest.getNotes();
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             DailyCheckinResponse response = userService.dailyCheckin(user, moodScore, energyScore,
                     motivationScore, suicidalScore, notes);
             if(response.isSuccess()){
@@ -225,11 +238,11 @@ public class InSessionController {
     }
 
     @PostMapping("/daily/checkin/getOverallScores")
-    public ResponseEntity<?> getOverallScores(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> getOverallScores(@AuthenticationPrincipal AuthenticatedUser principal,
                                               @RequestBody GetOverallScoresRequest getOverallScoresRequest) {
         Integer days = getOverallScoresRequest.getNumberOfDays();
 
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             GetOverallScoresResponse response = userService.getOverallScores(user, days);
 
             if (!response.isSuccess()) {
@@ -244,13 +257,24 @@ public class InSessionController {
         });
     }
 
+    @GetMapping("/daily/checkin/trend")
+    public ResponseEntity<?> getScoreTrend(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return executeWithUserReference(principal, user -> {
+            GetScoreTrendResponse response = userService.getScoreTrend(user);
+            if (response.getCheckinCount() == 0) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(response);
+        });
+    }
+
     @PostMapping("/add/medication")
-    public ResponseEntity<?> addMedication(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> addMedication(@AuthenticationPrincipal AuthenticatedUser principal,
                                            @RequestBody AddMedicationRequest addMedicationRequest) {
         String medicationName = addMedicationRequest.getMedicationName().toLowerCase();
         String dosage = addMedicationRequest.getDosage();
         String schedule = addMedicationRequest.getSchedule();
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             AddMedicationResponse response = userService.addMedication(user, medicationName, dosage, schedule);
             if(response.isSuccess()){
                 return ResponseEntity.ok(response);
@@ -261,13 +285,13 @@ public class InSessionController {
     }
 
     @PostMapping("/update/medication")
-    public ResponseEntity<?> updateMedication(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> updateMedication(@AuthenticationPrincipal AuthenticatedUser principal,
                                               @RequestBody UpdateMedicationRequest updateMedicationRequest) {
         String oldMedicationName = updateMedicationRequest.getOldMedicationName();
         String newMedicationName = updateMedicationRequest.getNewMedicationName();
         String dosage = updateMedicationRequest.getDosage();
         String schedule = updateMedicationRequest.getSchedule();
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             UpdateMedicationResponse response = userService.updateMedication(user, oldMedicationName,
                     newMedicationName, dosage, schedule);
             if(response.isSuccess()){
@@ -280,10 +304,10 @@ public class InSessionController {
 
 
     @PostMapping("/daily/medlog")
-    public ResponseEntity<?> dailyMedLog(@RequestHeader("Authorization") String authHeader,
+    public ResponseEntity<?> dailyMedLog(@AuthenticationPrincipal AuthenticatedUser principal,
                                          @RequestBody AddMedicationLogRequest addMedicationLogRequest) {
         String medicationName = addMedicationLogRequest.getMedicationName().toLowerCase();
-        return executeWithUser(authHeader, user -> {
+        return executeWithUserReference(principal, user -> {
             AddMedicationLogResponse response = userService.addMedicationLog(user,medicationName);
             if(response.isSuccess()){
                 return ResponseEntity.ok(response);
@@ -293,43 +317,128 @@ public class InSessionController {
         });
     }
 
+    /**
+     * Lists the check-ins of an authenticated user, newest first.
+     *
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @param cursor The nextCursor of the previous page, omitted for the first page
+     * @param limit The page size, omitted for the default
+     * @return ResponseEntity with the page, or 400 for an invalid cursor or limit
+     */
+    @GetMapping("/history/checkins")
+    @QueryBudget(HISTORY_QUERY_BUDGET)
+    public ResponseEntity<?> getCheckinHistory(@AuthenticationPrincipal AuthenticatedUser principal,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit) {
+        return executeWithUserReference(principal, user ->
+                historyPage(historyService.getCheckins(user, cursor, limit)));
+    }
 
     /**
-     * Retrieves a user by their ID from a JWT token.
-     * 
-     * @param token The JWT token containing the user ID
-     * @return The User object
-     * @throws UserException If the user is not found
+     * Lists the medication logs of an authenticated user, newest first.
+     *
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @param cursor The nextCursor of the previous page, omitted for the first page
+     * @param limit The page size, omitted for the default
+     * @return ResponseEntity with the page, or 400 for an invalid cursor or limit
      */
-    private User getUserByID(String token) throws UserException {
-        UUID userId = jwtUtil.validateTokenAndGetUserId(token);
-        Optional<User> userOptional = userService.getUserById(userId);
-        if (userOptional.isEmpty()) {
-            throw new UserException("User not found");
+    @GetMapping("/history/medlogs")
+    @QueryBudget(HISTORY_QUERY_BUDGET)
+    public ResponseEntity<?> getMedLogHistory(@AuthenticationPrincipal AuthenticatedUser principal,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer limit) {
+        return executeWithUserReference(principal, user ->
+                historyPage(historyService.getMedLogs(user, cursor, limit)));
+    }
+
+    /**
+     * Lists the alerts an authenticated user has triggered, newest first.
+     *
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @param cursor The nextCursor of the previous page, omitted for the first page
+     * @param limit The page size, omitted for the default
+     * @return ResponseEntity with the page, or 400 for an invalid cursor or limit
+     */
+    @GetMapping("/history/alerts")
+    @QueryBudget(HISTORY_QUERY_BUDGET)
+    public ResponseEntity<?> getAlertHistory(@AuthenticationPrincipal AuthenticatedUser principal,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit) {
+        return executeWithUserReference(principal, user ->
+                historyPage(historyService.getAlerts(user, cursor, limit)));
+    }
+
+    private static ResponseEntity<?> historyPage(HistoryPageResponse<?> response) {
+        if (!response.isSuccess()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
-        return userOptional.get();
+        if (response.getItems().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Helper method to execute an action with the fully loaded entity of the authenticated user.
+     * Only endpoints that change profile fields should use this, since it costs a users SELECT.
+     * 
+     * @param principal The caller resolved from the access token by the authentication filter
+     * @param action The action to execute with the authenticated user
+     * @return ResponseEntity with the result of the action or error message
+     */
+    private ResponseEntity<?> executeWithUser(AuthenticatedUser principal, Function<User, ResponseEntity<?>> action) {
+        return execute(principal, userId -> {
+            Optional<User> userOptional = userService.getUserById(userId);
+            if (userOptional.isEmpty()) {
+                throw new UserException("User not found");
+            }
+            return userOptional.get();
+        }, action);
     }
-    
+
     /**
-     * Helper method to execute an action with an authenticated user.
-     * This method handles common authentication and error handling logic.
+     * Helper method to execute an action with a lazy reference to the authenticated user.
+     * The reference carries the id without querying the users table, which is all that
+     * endpoints writing child rows or filtering by user need. Existence is checked against
+     * the cached profile.
      * 
-     * @param authHeader The Authorization header containing the access token
+     * @param principal The caller resolved from the access token by the authentication filter
      * @param action The action to execute with the authenticated user
      * @return ResponseEntity with the result of the action or error message
      */
-    private ResponseEntity<?> executeWithUser(String authHeader, Function<User, ResponseEntity<?>> action) {
+    private ResponseEntity<?> executeWithUserReference(AuthenticatedUser principal,
+                                                       Function<User, ResponseEntity<?>> action) {
+        return execute(principal, userService::getUserReference, action);
+    }
+
+    /**
+     * Handles the common authentication and error handling logic of the helpers above.
+     */
+    private ResponseEntity<?> execute(AuthenticatedUser principal, UserResolver resolver,
+                                      Function<User, ResponseEntity<?>> action) {
         try {
-            String token = GetAccessToken.getAccessToken(authHeader);
-            User user = getUserByID(token);
+            if (principal == null) {
+                throw new UnauthorizedException("Authorization header missing or malformed");
+            }
+            User user = resolver.resolve(principal.userId());
             return action.apply(user);
         } catch (UnauthorizedException e) {
             return ResponseEntity.status(HttpServletResponse.SC_UNAUTHORIZED).body(e.getMessage());
         } catch (UserException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        } catch (PasswordHashingUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid access token");
         }
     }
-}
 
+    @FunctionalInterface
+    private interface UserResolver {
+        User resolve(UUID userId) throws UserException;
+    }
+}
@@ -0,0 +1,25 @@
+package com.paloma.paloma.javaServer.controllers;
+
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
+import com.paloma.paloma.javaServer.filters.QueryBudget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers requests that ran more statements than their {@link QueryBudget} allows, with
+ * {@code paloma.query-budget.enforce} set, with 500. Controllers and services rethrow the
+ * exception from their catch-all blocks, so a test sees the broken budget rather than the
+ * endpoint's usual error response.
+ */
+@Slf4j
+@RestControllerAdvice
+public class QueryBudgetExceptionHandler {
+
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<String> handleQueryBudgetExceeded(QueryBudgetExceededException e) {
+        log.error(e.getMessage());
+        return ResponseEntity.internalServerError().body(e.getMessage());
+    }
+}
@@ -0,0 +1,21 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.requests;
+
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One account in a bulk provisioning upload, either an NDJSON object or a CSV record
+ * with the columns {@code username,email,fullName,password,roleType}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUserRow {
+    private String username;
+    private String email;
+    private String fullName;
+    private String password;
+    private RoleType roleType;
+}
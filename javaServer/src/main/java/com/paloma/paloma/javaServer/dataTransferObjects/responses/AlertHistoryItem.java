@@ -0,0 +1,17 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AlertHistoryItem {
+    private LocalDateTime triggeredAt;
+    private String reason;
+    private String contactEmail;
+    private Boolean wasSent;
+}
@@ -0,0 +1,36 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * The outcome of one row of a bulk provisioning upload, streamed back as one NDJSON line.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkUserResult {
+    public static final String CREATED = "created";
+    public static final String REJECTED = "rejected";
+
+    /**
+     * The 1-based line of the row in the upload, counting a CSV header.
+     */
+    private long line;
+    private String status;
+    private UUID userId;
+    private String message;
+
+    public static BulkUserResult created(long line, UUID userId) {
+        return new BulkUserResult(line, CREATED, userId, null);
+    }
+
+    public static BulkUserResult rejected(long line, String message) {
+        return new BulkUserResult(line, REJECTED, null, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckinHistoryItem {
+    private LocalDate date;
+    private Integer moodScore;
+    private Integer energyScore;
+    private Integer motivationScore;
+    private Integer suicidalScore;
+    private Double totalScore;
+    private String notes;
+}
@@ -0,0 +1,18 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClearDatabaseResponse {
+    private boolean success;
+    private String message;
+    private String mode;
+    private long elapsedMillis;
+    private List<TableClearResult> tables;
+}
@@ -11,5 +11,5 @@ import java.util.List;
 public class GetOverallScoresResponse {
     private boolean success;
     private String message;
-    private List<Integer> scores;
+    private List<Double> scores;
 }
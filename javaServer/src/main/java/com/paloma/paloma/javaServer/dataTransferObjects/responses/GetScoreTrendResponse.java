@@ -0,0 +1,25 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Summary of a user's check-in scores. Averages are null for periods without check-ins.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GetScoreTrendResponse {
+    private boolean success;
+    private String message;
+    private Double lastScore;
+    private LocalDate lastDate;
+    private long checkinCount;
+    private Double averageAllTime;
+    private Double average7Days;
+    private Double average30Days;
+    private Double average90Days;
+}
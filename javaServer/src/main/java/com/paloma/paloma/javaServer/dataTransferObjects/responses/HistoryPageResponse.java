@@ -0,0 +1,21 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a history list, newest first. {@code nextCursor} is passed back to get the next
+ * page and is null on the last one.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HistoryPageResponse<T> {
+    private boolean success;
+    private String message;
+    private List<T> items;
+    private String nextCursor;
+}
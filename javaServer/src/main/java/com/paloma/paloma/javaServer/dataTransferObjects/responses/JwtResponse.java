@@ -10,8 +10,17 @@ import lombok.NoArgsConstructor;
 public class JwtResponse {
     private String token;
     private String message;
-    
+    /**
+     * Only set when a refresh token was issued or rotated; the client must send it on the next refresh.
+     */
+    private String refreshToken;
+
     public JwtResponse(String token) {
         this.token = token;
     }
+
+    public JwtResponse(String token, String message) {
+        this.token = token;
+        this.message = message;
+    }
 }
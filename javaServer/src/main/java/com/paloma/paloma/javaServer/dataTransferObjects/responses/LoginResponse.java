@@ -10,4 +10,5 @@ import lombok.NoArgsConstructor;
 public class LoginResponse {
     private String accessToken;
     private String message;
+    private String refreshToken;
 }
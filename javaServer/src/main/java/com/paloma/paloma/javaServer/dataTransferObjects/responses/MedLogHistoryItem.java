@@ -0,0 +1,16 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MedLogHistoryItem {
+    private LocalDate date;
+    private String medicationName;
+    private Boolean taken;
+}
@@ -0,0 +1,14 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RebuildScoreHistoryResponse {
+    private boolean success;
+    private String message;
+    private int usersRebuilt;
+}
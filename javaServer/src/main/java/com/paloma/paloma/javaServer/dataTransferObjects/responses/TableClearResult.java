@@ -0,0 +1,17 @@
+package com.paloma.paloma.javaServer.dataTransferObjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The rows removed from one table by a database reset and how long that took.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TableClearResult {
+    private String table;
+    private long rows;
+    private long elapsedMillis;
+}
@@ -1,10 +1,13 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -14,10 +17,15 @@ import java.util.UUID;
  * Alerts are triggered when a user's mental health score indicates they may need support.
  * Each alert is associated with a user and a trusted contact, and includes information
  * about why it was triggered and whether it was successfully sent.
+ * The index on (user_id, triggered_at, id) serves the keyset-paginated alert history.
  */
 @Entity
-@Table(name = "alerts")
-@Data
+@Table(name = "alerts", indexes = {
+        @Index(name = "ix_alerts_user_triggered", columnList = "user_id, triggered_at, id, contact_id, was_sent")
+})
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Alert {
@@ -26,12 +34,13 @@ public class Alert {
      * Unique identifier for the alert.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     /**
      * The user who triggered the alert.
      */
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -39,6 +48,7 @@ public class Alert {
     /**
      * The trusted contact who will receive the alert.
      */
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contact_id", nullable = false)
     private TrustedContact contact;
@@ -62,5 +72,13 @@ public class Alert {
     @Column(name = "was_sent")
     private Boolean wasSent;
 
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, Alert::getId);
+    }
 
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 }
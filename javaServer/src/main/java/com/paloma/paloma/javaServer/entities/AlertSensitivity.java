@@ -1,24 +1,35 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.configurations.SecondLevelCacheConfig;
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
 import com.paloma.paloma.javaServer.entities.enums.SensitivityLevel;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ALERT_SENSITIVITY)
 @Table(name = "alert_sensitivity")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class AlertSensitivity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
+    @ToString.Exclude
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
@@ -27,7 +38,13 @@ public class AlertSensitivity {
     @Column(name = "sensitivity_level")
     private SensitivityLevel sensitivityLevel;
 
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, AlertSensitivity::getId);
+    }
 
-
-
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 }
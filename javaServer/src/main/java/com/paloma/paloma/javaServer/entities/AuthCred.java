@@ -1,10 +1,13 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -12,19 +15,23 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "auth_credentials")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuthCred {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     User user;
 
+    @ToString.Exclude
     @NotBlank(message = "Password hash is required")
     @Column(name = "password_hash", nullable = false)
     private String passwordHash;
@@ -33,5 +40,13 @@ public class AuthCred {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, AuthCred::getId);
+    }
 
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 }
@@ -1,30 +1,48 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7Generator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * One check-in per user and day. Migration 007 makes (user_id, date) the primary key, so the
+ * rows of a user are stored together in date order; the entity is identified by the same key.
+ * {@code id} is a unique secondary key, assigned on creation, that pages of check-ins use to
+ * break ties.
+ * Migration 010 partitions the table by month of {@code date}, which is why the unique key on
+ * {@code id} also holds {@code date}; MySQL does not allow foreign keys on partitioned tables,
+ * so none is declared for {@code user_id}.
+ */
 @Entity
-@Table(name = "daily_checkins")
-@Data
+@IdClass(DailyCheckin.Key.class)
+@Table(name = "daily_checkins", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_checkins_id", columnNames = {"id", "date"})
+})
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 public class DailyCheckin {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private UUID id;
-
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
+    @Id
     @Column(name = "date", nullable = false)
     private LocalDate date;
 
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
     @Min(value = 0, message = "Mood score must be greater than or equal to 0")
     @Max(value = 10, message = "Mood score must be less than or equal to 10")
     @Column(name = "mood_score")
@@ -58,6 +76,7 @@ public class DailyCheckin {
 
     public DailyCheckin(User user, LocalDate date, Integer moodScore, Integer energyScore, Integer motivationScore,
                         Integer suicidalScore, String notes) {
+        this.id = UuidV7Generator.next();
         this.user = user;
         this.date = date;
         this.moodScore = moodScore;
@@ -83,5 +102,25 @@ public class DailyCheckin {
 
     }
 
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, DailyCheckin::getId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 
+    /**
+     * The primary key (user_id, date).
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID user;
+        private LocalDate date;
+    }
 }
@@ -0,0 +1,41 @@
+package com.paloma.paloma.javaServer.entities;
+
+import org.hibernate.proxy.HibernateProxy;
+
+import java.util.function.Function;
+
+/**
+ * Equality shared by all entities: two instances are equal when they are of the same entity class
+ * and have the same id, and an entity without an id is only equal to itself.
+ * A Hibernate proxy counts as the class it stands for, and neither check initializes a proxy or
+ * reads an association, so entities can be put in sets or logged without loading anything.
+ * The hash code only depends on the class, so it does not change when an id is assigned on insert.
+ */
+final class EntityIdentity {
+
+    private EntityIdentity() {
+    }
+
+    static <T> boolean equals(T entity, Object other, Function<T, ?> id) {
+        if (entity == other) {
+            return true;
+        }
+        if (other == null || effectiveClass(entity) != effectiveClass(other)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        T that = (T) other;
+        Object entityId = id.apply(entity);
+        return entityId != null && entityId.equals(id.apply(that));
+    }
+
+    static int hashCode(Object entity) {
+        return effectiveClass(entity).hashCode();
+    }
+
+    private static Class<?> effectiveClass(Object entity) {
+        return entity instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getPersistentClass()
+                : entity.getClass();
+    }
+}
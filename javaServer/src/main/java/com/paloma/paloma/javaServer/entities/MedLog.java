@@ -1,34 +1,57 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7Generator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * One log per medication and day, enforced by the unique key added in migration 009.
+ * Logs are written by {@code ActivityLogWriter} without going through {@link Medication#getMedLogs()}.
+ * Migration 010 partitions the table by month of {@code date}, which needs the column in every
+ * unique key, so the primary key is (id, date) and the entity is identified by the same key.
+ * {@code id} is assigned on creation. MySQL does not allow foreign keys on partitioned tables,
+ * so none are declared.
+ */
 @Entity
-@Table(name = "med_logs")
-@Data
+@IdClass(MedLog.Key.class)
+@Table(name = "med_logs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_med_logs_medication_date", columnNames = {"medication_id", "date"})
+}, indexes = {
+        @Index(name = "ix_med_logs_user_date", columnList = "user_id, date, id, medication_id, taken")
+})
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
 public class MedLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private UUID id;
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id = UuidV7Generator.next();
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "medication_id", nullable = false)
+    @JoinColumn(name = "medication_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Medication medication;
 
+    @Id
     @Column(name = "date", nullable = false)
     private LocalDate date;
 
@@ -38,4 +61,26 @@ public class MedLog {
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, MedLog::getId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
+
+    /**
+     * The primary key (id, date).
+     */
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private UUID id;
+        private LocalDate date;
+    }
 }
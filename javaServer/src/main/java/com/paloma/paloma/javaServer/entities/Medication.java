@@ -1,10 +1,16 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.configurations.SecondLevelCacheConfig;
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -12,16 +18,21 @@ import java.util.List;
 
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.MEDICATIONS)
 @Table(name = "medications")
-@Data
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
 public class Medication {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -43,17 +54,17 @@ public class Medication {
     private LocalDateTime createdAt;
 
     //Relationships
+    @ToString.Exclude
     @OneToMany(mappedBy = "medication", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<MedLog> medLogs;
 
-    public void addMedLog(MedLog medLog) {
-        medLogs.add(medLog);
-        medLog.setMedication(this); // keeps the relationship consistent
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, Medication::getId);
     }
 
-    public void removeMedLog(MedLog medLog) {
-        medLogs.remove(medLog);
-        medLog.setMedication(null);
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
     }
-
 }
@@ -1,30 +1,76 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
+import com.paloma.paloma.javaServer.utilites.TokenDigest;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * A user's refresh token. Only the SHA-256 digest of the token is stored, so the unique
+ * index holds fixed 32 byte keys and a leaked table does not contain usable tokens.
+ */
 @Entity
-@Data
+@Table(name = "refresh_auth", indexes = {
+        @Index(name = "uk_refresh_auth_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_auth_expiry_date", columnList = "expiry_date")
+})
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
-@AllArgsConstructor
 public class RefreshAuth {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
+    @ToString.Exclude
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    @ToString.Exclude
+    @Column(name = "token_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
 
-    @Column(nullable = false)
+    @Column(name = "expiry_date", nullable = false)
     private LocalDateTime expiryDate;
-}
 
+    /**
+     * The raw token. Only known on the instance that minted it; never persisted.
+     */
+    @Transient
+    private String token;
+
+    public RefreshAuth(UUID id, User user, String token, LocalDateTime expiryDate) {
+        this.id = id;
+        this.user = user;
+        this.expiryDate = expiryDate;
+        setToken(token);
+    }
+
+    /**
+     * Sets the raw token and the digest that is stored in its place.
+     *
+     * @param token The raw refresh token
+     */
+    public void setToken(String token) {
+        this.token = token;
+        this.tokenHash = token == null ? null : TokenDigest.sha256(token);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, RefreshAuth::getId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
+}
@@ -0,0 +1,43 @@
+package com.paloma.paloma.javaServer.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * An access token that was revoked before its natural expiry, identified by its {@code jti} claim.
+ * Rows are only needed until {@link #expiresAt}; after that the token is rejected anyway.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 36)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, RevokedToken::getTokenId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
+}
@@ -1,11 +1,17 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.configurations.SecondLevelCacheConfig;
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
 import com.paloma.paloma.javaServer.entities.enums.RoleType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 import java.util.List;
@@ -13,22 +19,40 @@ import java.util.List;
 
 
 @Entity
-@Table(name = "roles")
-@Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = SecondLevelCacheConfig.ROLES)
+@Table(name = "roles", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_roles_role_type", columnNames = "role_type")
+})
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Role {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @Enumerated(EnumType.STRING)
     @NotNull(message = "Role is required")
-    @Column(nullable = false)
+    // VARCHAR rather than a MySQL enum, so adding a role type needs no schema change
+    @Column(name = "role_type", nullable = false, columnDefinition = "VARCHAR(32)")
     private RoleType roleType;
 
     //Relationships
+    @ToString.Exclude
     @OneToMany(mappedBy = "role", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<UserRole> userRoles;
+
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, Role::getId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 }
@@ -0,0 +1,218 @@
+package com.paloma.paloma.javaServer.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Running aggregate of a user's daily check-in scores, maintained in the same transaction as
+ * every check-in so score reads never scan {@code daily_checkins}.
+ * Besides all-time totals it keeps the scores of the last {@value #WINDOW_DAYS} days in a ring
+ * of one byte per day, indexed by epoch day, from which rolling averages and recent scores are read.
+ * Total scores are multiples of 0.25 between 0 and 10, so each fits a byte exactly.
+ */
+@Entity
+@Table(name = "score_history")
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class ScoreHistory implements Persistable<UUID> {
+
+    public static final int WINDOW_DAYS = 90;
+
+    private static final byte EMPTY = -1;
+    private static final int STEPS_PER_POINT = 4;
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "score_sum", nullable = false)
+    private double scoreSum;
+
+    @Column(name = "checkin_count", nullable = false)
+    private long checkinCount;
+
+    @Column(name = "last_score")
+    private Double lastScore;
+
+    @Column(name = "last_date")
+    private LocalDate lastDate;
+
+    /**
+     * Score of each of the {@value #WINDOW_DAYS} days ending at {@link #lastDate}, in quarter
+     * points, at index {@code epochDay % WINDOW_DAYS}; {@code -1} for days without a check-in.
+     */
+    @Column(name = "recent_scores", nullable = false, columnDefinition = "BINARY(90)")
+    private byte[] recentScores;
+
+    /**
+     * The id is assigned, so Spring Data cannot tell new rows from stored ones by a null id.
+     */
+    @Transient
+    private boolean newHistory;
+
+    public ScoreHistory(UUID userId) {
+        this.userId = userId;
+        this.recentScores = new byte[WINDOW_DAYS];
+        this.newHistory = true;
+        reset();
+    }
+
+    @Override
+    public UUID getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newHistory;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        newHistory = false;
+    }
+
+    /**
+     * Forgets all scores, before the history is rebuilt from the check-ins.
+     */
+    public void reset() {
+        scoreSum = 0;
+        checkinCount = 0;
+        lastScore = null;
+        lastDate = null;
+        Arrays.fill(recentScores, EMPTY);
+    }
+
+    /**
+     * Adds a check-in score, or replaces the score of a day that already has one.
+     * Replacements are only recognized within the window; check-ins are always for the current
+     * day, so an older day is never checked in again.
+     *
+     * @param date The day of the check-in
+     * @param score Its total score
+     */
+    public void record(LocalDate date, double score) {
+        byte encoded = (byte) Math.round(score * STEPS_PER_POINT);
+        if (lastDate == null || date.isAfter(lastDate)) {
+            clearDaysAfterLastUntil(date);
+            lastDate = date;
+        }
+        if (!inWindow(date)) {
+            scoreSum += score;
+            checkinCount++;
+            return;
+        }
+
+        int slot = slot(date);
+        if (recentScores[slot] == EMPTY) {
+            checkinCount++;
+        } else {
+            scoreSum -= decode(recentScores[slot]);
+        }
+        scoreSum += score;
+        recentScores[slot] = encoded;
+        if (date.equals(lastDate)) {
+            lastScore = score;
+        }
+    }
+
+    /**
+     * @return The mean of all check-in scores, or empty without check-ins
+     */
+    public Optional<Double> allTimeAverage() {
+        return checkinCount == 0 ? Optional.empty() : Optional.of(scoreSum / checkinCount);
+    }
+
+    /**
+     * Averages the scores of the days in {@code [today - days + 1, today]}.
+     *
+     * @param days The length of the period, at most {@value #WINDOW_DAYS}
+     * @param today The last day of the period
+     * @return The mean score of the days with a check-in, or empty if there were none
+     */
+    public Optional<Double> averageOver(int days, LocalDate today) {
+        if (days < 1 || days > WINDOW_DAYS) {
+            throw new IllegalArgumentException("Period must be between 1 and " + WINDOW_DAYS + " days");
+        }
+        double sum = 0;
+        int count = 0;
+        for (LocalDate day = today; day.isAfter(today.minusDays(days)); day = day.minusDays(1)) {
+            if (inWindow(day) && recentScores[slot(day)] != EMPTY) {
+                sum += decode(recentScores[slot(day)]);
+                count++;
+            }
+        }
+        return count == 0 ? Optional.empty() : Optional.of(sum / count);
+    }
+
+    /**
+     * Returns the scores of the latest check-ins, newest first, if the window holds them.
+     *
+     * @param limit The number of check-ins wanted
+     * @return The scores, or empty if older check-ins outside the window would be needed
+     */
+    public Optional<List<Double>> latestScores(int limit) {
+        List<Double> scores = new ArrayList<>(Math.min(limit, WINDOW_DAYS));
+        if (lastDate != null) {
+            for (int i = 0; i < WINDOW_DAYS && scores.size() < limit; i++) {
+                byte encoded = recentScores[slot(lastDate.minusDays(i))];
+                if (encoded != EMPTY) {
+                    scores.add(decode(encoded));
+                }
+            }
+        }
+        boolean complete = scores.size() == limit || scores.size() == checkinCount;
+        return complete ? Optional.of(scores) : Optional.empty();
+    }
+
+    private void clearDaysAfterLastUntil(LocalDate date) {
+        if (lastDate == null) {
+            return;
+        }
+        long gap = date.toEpochDay() - lastDate.toEpochDay();
+        if (gap >= WINDOW_DAYS) {
+            Arrays.fill(recentScores, EMPTY);
+            lastScore = null;
+            return;
+        }
+        for (long day = 1; day <= gap; day++) {
+            recentScores[slot(lastDate.plusDays(day))] = EMPTY;
+        }
+    }
+
+    private boolean inWindow(LocalDate date) {
+        return lastDate != null && !date.isAfter(lastDate) && date.isAfter(lastDate.minusDays(WINDOW_DAYS));
+    }
+
+    private static int slot(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), (long) WINDOW_DAYS);
+    }
+
+    private static double decode(byte encoded) {
+        return (double) encoded / STEPS_PER_POINT;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, ScoreHistory::getId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
+}
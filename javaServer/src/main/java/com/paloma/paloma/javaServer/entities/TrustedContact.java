@@ -1,9 +1,12 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -12,19 +15,23 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "trusted_contacts")
-@Data
+@Getter
+@Setter
+@ToString
 @AllArgsConstructor
 @NoArgsConstructor
 public class TrustedContact {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "contact_user_id", nullable = false)
     private User contactUser;
@@ -37,8 +44,17 @@ public class TrustedContact {
     private LocalDateTime createdAt;
 
     //Relationships
+    @ToString.Exclude
     @OneToMany(mappedBy = "contact", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Alert> alerts;
 
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, TrustedContact::getId);
+    }
 
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 }
@@ -1,10 +1,14 @@
 package com.paloma.paloma.javaServer.entities;
 
+import com.paloma.paloma.javaServer.entities.ids.UuidV7;
+import com.paloma.paloma.javaServer.utilites.Identifiers;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import jakarta.validation.constraints.NotBlank;
 import org.hibernate.annotations.CreationTimestamp;
 
@@ -20,17 +24,26 @@ import java.util.UUID;
  * medication logs, alerts, and score histories.
  */
 @Entity
-@Table(name = "users")
-@Data
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_username_normalized", columnNames = "username_normalized"),
+        @UniqueConstraint(name = "uk_users_email_normalized", columnNames = "email_normalized")
+})
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    public static final int USERNAME_MAX_LENGTH = 100;
+    public static final int EMAIL_MAX_LENGTH = 200;
+    public static final int FULL_NAME_MAX_LENGTH = 100;
+
     /**
      * Unique identifier for the user.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     /**
@@ -38,7 +51,7 @@ public class User {
      * Must be unique across all users.
      */
     @NotBlank(message = "Username is required")
-    @Size(max = 100, message = "Username must be less than 100 characters")
+    @Size(max = USERNAME_MAX_LENGTH, message = "Username must be less than 100 characters")
     @Column(unique = true, nullable = false)
     private String username;
 
@@ -47,14 +60,28 @@ public class User {
      * Must be unique across all users.
      */
     @NotBlank(message = "Email is required")
-    @Size(max = 200, message = "Email must be less than 200 characters")
+    @Size(max = EMAIL_MAX_LENGTH, message = "Email must be less than 200 characters")
     @Column(unique = true, nullable = false)
     private String email;
 
+    /**
+     * The username in the form used for lookups, see {@link Identifiers#normalize(String)}.
+     * Kept in sync with {@link #username} before every insert and update.
+     */
+    @Column(name = "username_normalized", nullable = false, length = USERNAME_MAX_LENGTH)
+    private String usernameNormalized;
+
+    /**
+     * The email in the form used for lookups, see {@link Identifiers#normalize(String)}.
+     * Kept in sync with {@link #email} before every insert and update.
+     */
+    @Column(name = "email_normalized", nullable = false, length = EMAIL_MAX_LENGTH)
+    private String emailNormalized;
+
     /**
      * The user's full name.
      */
-    @Size(max = 100, message = "Full name must be less than 100 characters")
+    @Size(max = FULL_NAME_MAX_LENGTH, message = "Full name must be less than 100 characters")
     @Column(name = "full_name")
     private String fullName;
 
@@ -77,43 +104,67 @@ public class User {
     /**
      * The roles assigned to this user.
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<UserRole> userRoles;
 
     /**
      * The trusted contacts that this user has added.
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TrustedContact> trustedContacts;
 
     /**
      * The daily check-ins submitted by this user.
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<DailyCheckin> dailyCheckins;
 
     /**
      * The medications that this user is taking.
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Medication> medications;
 
     /**
      * The medication logs recorded by this user.
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<MedLog> medLogs;
 
     /**
      * The alerts triggered by this user.
      */
+    @ToString.Exclude
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Alert> alerts;
 
+    @ToString.Exclude
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
     private RefreshAuth refreshAuth;
 
+    @ToString.Exclude
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL)
     private AlertSensitivity alertSensitivity;
 
+    @PrePersist
+    @PreUpdate
+    void normalizeIdentifiers() {
+        usernameNormalized = Identifiers.normalize(username);
+        emailNormalized = Identifiers.normalize(email);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        return EntityIdentity.equals(this, o, User::getId);
+    }
+
+    @Override
+    public final int hashCode() {
+        return EntityIdentity.hashCode(this);
+    }
 }
@@ -1,5 +1,5 @@
 package com.paloma.paloma.javaServer.entities.enums;
 
 public enum RoleType {
-    USER, TRUSTED_CONTACT
+    USER, TRUSTED_CONTACT, ADMIN
 }
@@ -0,0 +1,21 @@
+package com.paloma.paloma.javaServer.entities.ids;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link java.util.UUID} id that is assigned a time-ordered version 7 UUID on insert.
+ * Use it in place of {@code @GeneratedValue(strategy = GenerationType.UUID)}, whose random
+ * version 4 ids scatter inserts across the clustered index.
+ *
+ * @see UuidV7Generator
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7 {
+}
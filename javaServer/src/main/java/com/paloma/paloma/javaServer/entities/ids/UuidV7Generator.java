@@ -0,0 +1,61 @@
+package com.paloma.paloma.javaServer.entities.ids;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates version 7 UUIDs as described in RFC 9562: a 48-bit Unix timestamp in milliseconds,
+ * a 12-bit counter and 62 random bits. Hibernate stores UUIDs as big-endian {@code BINARY(16)}
+ * on MySQL, so ids generated later sort after earlier ones and new rows are appended to the
+ * right edge of the clustered index instead of splitting pages all over it.
+ * <p>
+ * Ids are strictly increasing within this process: the counter orders ids created in the same
+ * millisecond, and when it runs out the timestamp is advanced by one instead of going back.
+ * The random bits do not come from a cryptographic source; ids are not secrets.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 7L << 12;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    /** The timestamp of the last id shifted left by the counter width, plus its counter. */
+    private static final AtomicLong last = new AtomicLong();
+
+    /**
+     * @return A new version 7 UUID, greater than every id previously returned by this process
+     */
+    public static UUID next() {
+        return next(System.currentTimeMillis());
+    }
+
+    static UUID next(long nowMillis) {
+        long candidate = nowMillis << COUNTER_BITS;
+        long stamp = last.accumulateAndGet(candidate, (previous, now) -> Math.max(previous + 1, now));
+        long timestamp = stamp >>> COUNTER_BITS;
+        long counter = stamp & ((1L << COUNTER_BITS) - 1);
+
+        long mostSignificant = (timestamp << 16) | VERSION | counter;
+        long leastSignificant = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
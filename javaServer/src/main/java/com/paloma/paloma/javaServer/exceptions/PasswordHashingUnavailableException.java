@@ -0,0 +1,7 @@
+package com.paloma.paloma.javaServer.exceptions;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.paloma.paloma.javaServer.exceptions;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
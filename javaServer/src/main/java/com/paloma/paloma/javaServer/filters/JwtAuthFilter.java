@@ -1,5 +1,7 @@
 package com.paloma.paloma.javaServer.filters;
 
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import com.paloma.paloma.javaServer.services.TokenRevocationService;
 import com.paloma.paloma.javaServer.utilites.JwtUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -13,13 +15,13 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
 @Component
 @AllArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -35,9 +37,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String token = header.substring(7);
         try {
-            UUID userId = jwtUtil.validateTokenAndGetUserId(token);
+            JwtUtil.VerifiedToken verified = jwtUtil.validateToken(token);
+            if (tokenRevocationService.isRevoked(verified.tokenId())) {
+                // Token was revoked on logout - treat it like an invalid one
+                SecurityContextHolder.clearContext();
+                filterChain.doFilter(request, response);
+                return;
+            }
             UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                    userId, null, null
+                    new AuthenticatedUser(verified.userId(), verified.tokenId(), verified.expiration()), null, null
             );
             auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(auth);
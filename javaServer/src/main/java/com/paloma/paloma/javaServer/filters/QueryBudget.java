@@ -0,0 +1,16 @@
+package com.paloma.paloma.javaServer.filters;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The number of SQL statements a request to the annotated endpoint may run, overriding
+ * {@code paloma.query-budget.default}. See {@link QueryBudgetInterceptor}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
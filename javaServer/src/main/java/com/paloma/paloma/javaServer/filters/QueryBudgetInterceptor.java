@@ -0,0 +1,86 @@
+package com.paloma.paloma.javaServer.filters;
+
+import com.paloma.paloma.javaServer.utilites.QueryTracker;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements of every controller call against its budget: the value of
+ * {@link QueryBudget} on the handler method, or {@code paloma.query-budget.default}.
+ * <p>
+ * With {@code paloma.query-budget.enforce} set, which is meant for tests, the statement over
+ * budget fails the request. Otherwise the request completes and a warning is logged, together
+ * with every statement it ran at least {@code paloma.query-budget.repeat-threshold} times, the
+ * usual sign of an association loaded row by row.
+ * <p>
+ * An asynchronous handler, such as one returning {@code StreamingResponseBody}, is counted up to
+ * the point it hands off to another thread; the scope is closed there, on the servlet thread that
+ * opened it. The async dispatch that completes the request opens a scope of its own.
+ */
+@Slf4j
+@Component
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".scope";
+
+    private final int defaultBudget;
+    private final boolean enforce;
+    private final int repeatThreshold;
+
+    public QueryBudgetInterceptor(@Value("${paloma.query-budget.default:20}") int defaultBudget,
+                                  @Value("${paloma.query-budget.enforce:false}") boolean enforce,
+                                  @Value("${paloma.query-budget.repeat-threshold:5}") int repeatThreshold) {
+        this.defaultBudget = defaultBudget;
+        this.enforce = enforce;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryBudget annotation = handlerMethod.getMethodAnnotation(QueryBudget.class);
+            int budget = annotation != null ? annotation.value() : defaultBudget;
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryTracker.open(endpoint(request), budget, enforce));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        finish(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        finish(request);
+    }
+
+    private void finish(HttpServletRequest request) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof QueryTracker.Scope scope)) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+        if (scope.isOverBudget()) {
+            log.warn("{} ran {} statements, budget {}", scope.getName(), scope.getStatements(), scope.getBudget());
+        }
+        scope.getRepeatedStatements(repeatThreshold).forEach((sql, count) ->
+                log.warn("{} ran the same statement {} times: {}", scope.getName(), count, sql));
+    }
+
+    /**
+     * Uses the mapped pattern rather than the path, so requests for different ids share a name.
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
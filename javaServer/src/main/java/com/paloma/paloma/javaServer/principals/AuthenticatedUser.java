@@ -0,0 +1,16 @@
+package com.paloma.paloma.javaServer.principals;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * The caller of the current request, resolved once by {@link com.paloma.paloma.javaServer.filters.JwtAuthFilter}
+ * from the bearer token and stored as the principal of the security context.
+ * Controllers receive it with {@code @AuthenticationPrincipal} instead of re-reading the Authorization header.
+ *
+ * @param userId The id of the authenticated user
+ * @param tokenId The {@code jti} of the access token, used to revoke it on logout
+ * @param expiration The expiry of the access token
+ */
+public record AuthenticatedUser(UUID userId, String tokenId, Date expiration) {
+}
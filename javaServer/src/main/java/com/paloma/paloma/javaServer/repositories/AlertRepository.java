@@ -1,11 +1,48 @@
 package com.paloma.paloma.javaServer.repositories;
 
 import com.paloma.paloma.javaServer.entities.Alert;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface AlertRepository extends JpaRepository<Alert, UUID> {
+
+    /**
+     * First page of the alerts a user triggered, newest first, seeking on ix_alerts_user_triggered.
+     */
+    @Query("SELECT a.id AS id, a.triggeredAt AS triggeredAt, a.reason AS reason, a.wasSent AS wasSent, " +
+            "u.email AS contactEmail FROM Alert a JOIN a.contact c JOIN c.contactUser u " +
+            "WHERE a.user.id = :userId ORDER BY a.triggeredAt DESC, a.id DESC")
+    List<AlertEntry> findAlertPage(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * The alerts after {@code (triggeredAt, id)} in the order of {@link #findAlertPage(UUID, Pageable)}.
+     */
+    @Query("SELECT a.id AS id, a.triggeredAt AS triggeredAt, a.reason AS reason, a.wasSent AS wasSent, " +
+            "u.email AS contactEmail FROM Alert a JOIN a.contact c JOIN c.contactUser u " +
+            "WHERE a.user.id = :userId " +
+            "AND (a.triggeredAt < :triggeredAt OR (a.triggeredAt = :triggeredAt AND a.id < :id)) " +
+            "ORDER BY a.triggeredAt DESC, a.id DESC")
+    List<AlertEntry> findAlertPageAfter(@Param("userId") UUID userId,
+                                        @Param("triggeredAt") LocalDateTime triggeredAt,
+                                        @Param("id") UUID id, Pageable pageable);
+
+    interface AlertEntry {
+        UUID getId();
+
+        LocalDateTime getTriggeredAt();
+
+        String getReason();
+
+        Boolean getWasSent();
+
+        String getContactEmail();
+    }
 }
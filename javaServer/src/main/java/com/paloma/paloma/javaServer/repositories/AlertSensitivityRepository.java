@@ -1,10 +1,20 @@
 package com.paloma.paloma.javaServer.repositories;
 
 import com.paloma.paloma.javaServer.entities.AlertSensitivity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
 import java.util.UUID;
 @Repository
 public interface AlertSensitivityRepository extends JpaRepository<AlertSensitivity, UUID> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT a FROM AlertSensitivity a WHERE a.user.id = :userId")
+    Optional<AlertSensitivity> findByUserId(@Param("userId") UUID userId);
 }
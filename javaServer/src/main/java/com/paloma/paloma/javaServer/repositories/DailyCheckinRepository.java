@@ -7,12 +7,73 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface DailyCheckinRepository extends JpaRepository<DailyCheckin, UUID> {
+public interface DailyCheckinRepository extends JpaRepository<DailyCheckin, DailyCheckin.Key> {
     @Query("SELECT d.totalScore FROM DailyCheckin d WHERE d.user.id = :userId ORDER BY d.date DESC")
-    List<Integer> findLatestOverallScoresByUserId(@Param("userId") UUID userId, Pageable pageable);
+    List<Double> findLatestOverallScoresByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Like {@link #findLatestOverallScoresByUserId(UUID, Pageable)}, but only check-ins on or after
+     * {@code since}. The bound lets MySQL prune the monthly partitions of {@code daily_checkins}
+     * to the ones that can hold such rows.
+     */
+    @Query("SELECT d.totalScore FROM DailyCheckin d WHERE d.user.id = :userId AND d.date >= :since ORDER BY d.date DESC")
+    List<Double> findLatestOverallScoresByUserId(@Param("userId") UUID userId, @Param("since") LocalDate since,
+                                                 Pageable pageable);
+
+    @Query("SELECT d.date AS date, d.totalScore AS totalScore FROM DailyCheckin d " +
+            "WHERE d.user.id = :userId ORDER BY d.date")
+    List<DailyScore> findScoresByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT DISTINCT d.user.id FROM DailyCheckin d")
+    List<UUID> findUserIdsWithCheckins();
+
+    /**
+     * First page of a user's check-ins, newest first. Reads the primary key (user_id, date)
+     * backwards, which holds the whole row.
+     */
+    @Query("SELECT d.id AS id, d.date AS date, d.moodScore AS moodScore, d.energyScore AS energyScore, " +
+            "d.motivationScore AS motivationScore, d.suicidalScore AS suicidalScore, " +
+            "d.totalScore AS totalScore, d.notes AS notes FROM DailyCheckin d " +
+            "WHERE d.user.id = :userId ORDER BY d.date DESC, d.id DESC")
+    List<CheckinEntry> findCheckinPage(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * The check-ins after {@code (date, id)} in the order of {@link #findCheckinPage(UUID, Pageable)}.
+     */
+    @Query("SELECT d.id AS id, d.date AS date, d.moodScore AS moodScore, d.energyScore AS energyScore, " +
+            "d.motivationScore AS motivationScore, d.suicidalScore AS suicidalScore, " +
+            "d.totalScore AS totalScore, d.notes AS notes FROM DailyCheckin d " +
+            "WHERE d.user.id = :userId AND (d.date < :date OR (d.date = :date AND d.id < :id)) " +
+            "ORDER BY d.date DESC, d.id DESC")
+    List<CheckinEntry> findCheckinPageAfter(@Param("userId") UUID userId, @Param("date") LocalDate date,
+                                            @Param("id") UUID id, Pageable pageable);
+
+    interface DailyScore {
+        LocalDate getDate();
+
+        Double getTotalScore();
+    }
+
+    interface CheckinEntry {
+        UUID getId();
+
+        LocalDate getDate();
+
+        Integer getMoodScore();
+
+        Integer getEnergyScore();
+
+        Integer getMotivationScore();
+
+        Integer getSuicidalScore();
+
+        Double getTotalScore();
+
+        String getNotes();
+    }
 }
@@ -1,11 +1,46 @@
 package com.paloma.paloma.javaServer.repositories;
 
 import com.paloma.paloma.javaServer.entities.MedLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface MedLogRepository extends JpaRepository<MedLog, UUID> {
+public interface MedLogRepository extends JpaRepository<MedLog, MedLog.Key> {
+
+    /**
+     * First page of a user's medication logs, newest first. The seek and the log columns are
+     * covered by ix_med_logs_user_date; only the medication name is read from medications,
+     * once per returned row.
+     */
+    @Query("SELECT l.id AS id, l.date AS date, m.name AS medicationName, l.taken AS taken " +
+            "FROM MedLog l JOIN l.medication m " +
+            "WHERE l.user.id = :userId ORDER BY l.date DESC, l.id DESC")
+    List<MedLogEntry> findMedLogPage(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * The logs after {@code (date, id)} in the order of {@link #findMedLogPage(UUID, Pageable)}.
+     */
+    @Query("SELECT l.id AS id, l.date AS date, m.name AS medicationName, l.taken AS taken " +
+            "FROM MedLog l JOIN l.medication m " +
+            "WHERE l.user.id = :userId AND (l.date < :date OR (l.date = :date AND l.id < :id)) " +
+            "ORDER BY l.date DESC, l.id DESC")
+    List<MedLogEntry> findMedLogPageAfter(@Param("userId") UUID userId, @Param("date") LocalDate date,
+                                          @Param("id") UUID id, Pageable pageable);
+
+    interface MedLogEntry {
+        UUID getId();
+
+        LocalDate getDate();
+
+        String getMedicationName();
+
+        Boolean getTaken();
+    }
 }
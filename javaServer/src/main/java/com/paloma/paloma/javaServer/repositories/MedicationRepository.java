@@ -1,7 +1,10 @@
 package com.paloma.paloma.javaServer.repositories;
 
 import com.paloma.paloma.javaServer.entities.Medication;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,5 +12,6 @@ import java.util.UUID;
 
 @Repository
 public interface MedicationRepository extends JpaRepository<Medication, UUID> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Medication> findByNameAndUserId(String medicationName, UUID userId);
 }
@@ -3,19 +3,49 @@ package com.paloma.paloma.javaServer.repositories;
 import com.paloma.paloma.javaServer.entities.RefreshAuth;
 import com.paloma.paloma.javaServer.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface RefreshAuthRepository extends JpaRepository<RefreshAuth, UUID> {
     void deleteByUser(User user);
 
-    Optional<RefreshAuth> findByToken(String token);
-
     Optional<RefreshAuth> findByUserId(UUID userId);
 
-
-
-
-
+    /**
+     * Replaces a user's refresh token if it matches the one presented and has not expired yet.
+     * Validation and rotation happen in a single statement, so a refresh costs one round trip.
+     * The expiry is left as it is, so rotating never extends the session.
+     *
+     * @param userId The owner of the token
+     * @param currentHash The digest of the token presented by the client
+     * @param tokenHash The digest of the new token
+     * @param now The current time
+     * @return 1 if the user presented their valid token, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE RefreshAuth r SET r.tokenHash = :tokenHash " +
+            "WHERE r.user.id = :userId AND r.tokenHash = :currentHash AND r.expiryDate > :now")
+    int rotateIfValid(@Param("userId") UUID userId,
+                      @Param("currentHash") byte[] currentHash,
+                      @Param("tokenHash") byte[] tokenHash,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes at most {@code limit} tokens that expired before {@code cutoff}, in its own short transaction.
+     * Callers loop until it returns less than {@code limit}, so no single statement locks a large range.
+     *
+     * @param cutoff Tokens expiring before this moment are deleted
+     * @param limit The maximum number of rows to delete
+     * @return The number of deleted rows
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_auth WHERE expiry_date < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
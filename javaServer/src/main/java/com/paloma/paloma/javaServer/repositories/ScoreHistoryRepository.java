@@ -0,0 +1,29 @@
+package com.paloma.paloma.javaServer.repositories;
+
+import com.paloma.paloma.javaServer.entities.ScoreHistory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface ScoreHistoryRepository extends JpaRepository<ScoreHistory, UUID> {
+
+    /**
+     * Loads a history and locks its row until the end of the transaction, so concurrent
+     * check-ins of the same user are applied one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ScoreHistory s WHERE s.userId = :userId")
+    Optional<ScoreHistory> findForUpdate(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM ScoreHistory s WHERE s.userId NOT IN (SELECT DISTINCT d.user.id FROM DailyCheckin d)")
+    int deleteWithoutCheckins();
+}
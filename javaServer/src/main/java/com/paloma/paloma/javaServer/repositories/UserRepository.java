@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,15 +17,19 @@ import java.util.UUID;
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
 
-Optional<User> findByEmail(String email);
+/**
+ * Lookups by identifier take the normalized form, see {@link com.paloma.paloma.javaServer.utilites.Identifiers},
+ * and are each served by the unique index on that column.
+ */
+Optional<User> findByEmailNormalized(String emailNormalized);
 
-Optional<User> findByUsername(String username);
+Optional<User> findByUsernameNormalized(String usernameNormalized);
 
-Optional<User> findByEmailOrUsername(String email, String username);
+@Query("SELECT u.emailNormalized FROM User u WHERE u.emailNormalized IN :emails")
+List<String> findExistingEmailsNormalized(@Param("emails") Collection<String> emails);
 
-boolean existsByEmail(String email);
-
-boolean existsByUsername(String username);
+@Query("SELECT u.usernameNormalized FROM User u WHERE u.usernameNormalized IN :usernames")
+List<String> findExistingUsernamesNormalized(@Param("usernames") Collection<String> usernames);
 
 
 @Query("SELECT u FROM User u WHERE u.lastLogin < :cutoffDate")
@@ -4,8 +4,11 @@ import com.paloma.paloma.javaServer.entities.Role;
 import com.paloma.paloma.javaServer.entities.User;
 import com.paloma.paloma.javaServer.entities.UserRole;
 import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,12 +16,19 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Role lookups run for every role check, their results are kept in the query cache and the
+ * rows in the {@code user_roles} region. Any write to {@code user_roles} through JPA invalidates
+ * the cached results.
+ */
 @Repository
 public interface UserRoleRepository extends JpaRepository<UserRole, UUID> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT ur FROM UserRole ur WHERE ur.user = :user AND ur.role.roleType = :roleType")
     Optional<UserRole> findByUserAndRoleType(@Param("user") User user, @Param("roleType") RoleType roleType);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT ur FROM UserRole ur WHERE ur.user = :user")
     List<UserRole> findAllByUser(@Param("user") User user);
 
@@ -0,0 +1,217 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.caches.RecentWriters;
+import com.paloma.paloma.javaServer.entities.DailyCheckin;
+import com.paloma.paloma.javaServer.entities.MedLog;
+import com.paloma.paloma.javaServer.utilites.GroupCommitter;
+import com.paloma.paloma.javaServer.utilites.UuidBytes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Write path for daily check-ins and medication logs, which arrive in bursts right after the
+ * evening reminder. Writes from concurrent requests are grouped for up to
+ * {@code paloma.group-commit.window} and committed in one transaction: check-ins as one batched
+ * upsert on their (user, date) key together with the users' {@code ScoreHistory}, logs as one
+ * batched upsert on their (medication, date) key. Neither loads the rows or collections they
+ * are added to.
+ * Callers block until their own row is committed or rejected; one that waited too long gets a
+ * failure only if its row was not written.
+ * <p>
+ * Callers must not hold a transaction while waiting, or every waiting request keeps a pooled
+ * connection that the writer then cannot get.
+ */
+@Service
+public class ActivityLogWriter {
+
+    private static final String UPSERT_CHECKIN =
+            "INSERT INTO daily_checkins (id, user_id, date, mood_score, energy_score, motivation_score, " +
+                    "suicidal_score, total_score, notes, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) AS new " +
+                    "ON DUPLICATE KEY UPDATE mood_score = new.mood_score, energy_score = new.energy_score, " +
+                    "motivation_score = new.motivation_score, suicidal_score = new.suicidal_score, " +
+                    "total_score = new.total_score, notes = new.notes";
+
+    private static final String UPSERT_MED_LOG =
+            "INSERT INTO med_logs (id, user_id, medication_id, date, taken, created_at) VALUES (?, ?, ?, ?, ?, ?) AS new " +
+                    "ON DUPLICATE KEY UPDATE taken = new.taken";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final ScoreHistoryService scoreHistoryService;
+    private final RecentWriters recentWriters;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration timeout;
+    private final GroupCommitter<Object> committer;
+
+    private DistributionSummary groupSizes;
+
+    public ActivityLogWriter(JdbcTemplate jdbcTemplate,
+                             Validator validator,
+                             ScoreHistoryService scoreHistoryService,
+                             RecentWriters recentWriters,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${paloma.group-commit.window:5ms}") Duration window,
+                             @Value("${paloma.group-commit.max-size:100}") int maxGroupSize,
+                             @Value("${paloma.group-commit.capacity:10000}") int capacity,
+                             @Value("${paloma.group-commit.timeout:5s}") Duration timeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+        this.scoreHistoryService = scoreHistoryService;
+        this.recentWriters = recentWriters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeout = timeout;
+        this.committer = new GroupCommitter<>("activity-log-writer", window, maxGroupSize, capacity, this::writeAll);
+    }
+
+    /**
+     * Publishes the number of rows committed together as {@code paloma.group.commit.size}.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        groupSizes = DistributionSummary.builder("paloma.group.commit.size")
+                .description("Check-ins and medication logs committed in one transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a check-in and waits for it to be committed. A user has at most one check-in per
+     * day, so a second one on the same date replaces the scores and notes of the first.
+     *
+     * @param checkin The check-in; only the id of its user is used
+     * @throws ConstraintViolationException If a score is out of range
+     * @throws RuntimeException The reason the row was not written
+     */
+    public void upsert(DailyCheckin checkin) {
+        Set<ConstraintViolation<DailyCheckin>> violations = validator.validate(checkin);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")), violations);
+        }
+        await(committer.submit(checkin));
+    }
+
+    /**
+     * Records a medication log and waits for it to be committed. A medication has at most one log
+     * per day, so logging it again on the same date only updates whether it was taken.
+     *
+     * @param medLog The log; only the ids of its user and medication are used
+     * @throws RuntimeException The reason the row was not written
+     */
+    public void upsert(MedLog medLog) {
+        await(committer.submit(medLog));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        committer.close();
+    }
+
+    private void writeAll(List<Object> rows) {
+        List<DailyCheckin> checkins = new ArrayList<>();
+        List<MedLog> medLogs = new ArrayList<>();
+        for (Object row : rows) {
+            if (row instanceof DailyCheckin checkin) {
+                checkins.add(checkin);
+            } else if (row instanceof MedLog medLog) {
+                medLogs.add(medLog);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!checkins.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_CHECKIN, checkins.stream().map(ActivityLogWriter::upsertArguments).toList());
+                for (DailyCheckin checkin : checkins) {
+                    scoreHistoryService.record(checkin.getUser().getId(), checkin.getDate(), checkin.getTotalScore());
+                }
+            }
+            if (!medLogs.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_MED_LOG, medLogs.stream().map(ActivityLogWriter::upsertArguments).toList());
+            }
+        });
+        // the writes ran on this thread, not the callers', so the router could not see whose they were
+        checkins.forEach(checkin -> recentWriters.markWrite(checkin.getUser().getId()));
+        medLogs.forEach(medLog -> recentWriters.markWrite(medLog.getUser().getId()));
+        if (groupSizes != null) {
+            groupSizes.record(rows.size());
+        }
+    }
+
+    private static Object[] upsertArguments(DailyCheckin checkin) {
+        return new Object[]{
+                UuidBytes.toBytes(checkin.getId()),
+                UuidBytes.toBytes(checkin.getUser().getId()),
+                Date.valueOf(checkin.getDate()),
+                checkin.getMoodScore(),
+                checkin.getEnergyScore(),
+                checkin.getMotivationScore(),
+                checkin.getSuicidalScore(),
+                checkin.getTotalScore(),
+                checkin.getNotes(),
+                Timestamp.valueOf(checkin.getCreatedAt())
+        };
+    }
+
+    private static Object[] upsertArguments(MedLog medLog) {
+        return new Object[]{
+                UuidBytes.toBytes(medLog.getId()),
+                UuidBytes.toBytes(medLog.getUser().getId()),
+                UuidBytes.toBytes(medLog.getMedication().getId()),
+                Date.valueOf(medLog.getDate()),
+                medLog.getTaken(),
+                Timestamp.valueOf(medLog.getCreatedAt())
+        };
+    }
+
+    /**
+     * Waits up to the timeout for the row to be queued, written and committed. A row still queued
+     * then is withdrawn, so the failure reported is true; a row the writer already took is waited
+     * for until its transaction ends, since only that tells whether it was written.
+     */
+    private void await(CompletableFuture<Void> result) {
+        try {
+            try {
+                result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (committer.withdraw(result)) {
+                    throw new IllegalStateException("Timed out waiting for the write to commit, it was not written");
+                }
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(committer.withdraw(result)
+                    ? "Interrupted while waiting for the write to commit, it was not written"
+                    : "Interrupted while waiting for the write to commit, it may still be written");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Write failed", e.getCause());
+        }
+    }
+}
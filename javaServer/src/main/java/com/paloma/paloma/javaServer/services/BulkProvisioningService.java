@@ -0,0 +1,352 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paloma.paloma.javaServer.caches.RoleCatalog;
+import com.paloma.paloma.javaServer.dataTransferObjects.requests.BulkUserRow;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.BulkUserResult;
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.entities.ids.UuidV7Generator;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import com.paloma.paloma.javaServer.utilites.Identifiers;
+import com.paloma.paloma.javaServer.utilites.UuidBytes;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Creates many accounts from one streamed upload, e.g. when a whole clinic is onboarded.
+ * Rows are read one at a time and handled in chunks: each chunk is checked against existing
+ * accounts with two set-based queries, its passwords are hashed in parallel on the shared
+ * hashing pool, and its users, credentials and roles are written with three JDBC batches in
+ * one transaction. One result line is written per row as soon as its chunk is done, so neither
+ * the upload nor the response is ever held in memory as a whole.
+ */
+@Service
+public class BulkProvisioningService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (id, username, email, full_name, created_at, username_normalized, email_normalized) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CREDENTIAL =
+            "INSERT INTO auth_credentials (id, user_id, password_hash, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_USER_ROLE =
+            "INSERT INTO user_roles (id, user_id, role_id, is_primary) VALUES (?, ?, ?, ?)";
+
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "fullName", "password", "roleType");
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final RoleCatalog roleCatalog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BulkProvisioningService(UserRepository userRepository,
+                                   PasswordHashingService passwordHashingService,
+                                   RoleCatalog roleCatalog,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   @Value("${paloma.bulk-provisioning.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.roleCatalog = roleCatalog;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Provisions every row of an upload and writes one NDJSON {@link BulkUserResult} per row.
+     * Rows that cannot be parsed or validated are answered immediately, the others once their
+     * chunk is written, so results are not necessarily in upload order; use their line numbers.
+     *
+     * @param in The upload, NDJSON objects or CSV with a header row
+     * @param format The format of the upload
+     * @param out Where the results are written
+     * @throws IOException If reading the upload or writing the results fails
+     */
+    public void provision(InputStream in, Format format, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenUsernames = new HashSet<>();
+        List<PendingUser> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+
+        Map<String, Integer> columns = null;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            lineNumber++;
+            if (header == null) {
+                return;
+            }
+            columns = csvColumns(header);
+            if (columns == null) {
+                write(out, BulkUserResult.rejected(lineNumber, "CSV header must contain the columns " + CSV_COLUMNS));
+                out.flush();
+                return;
+            }
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            BulkUserRow row;
+            try {
+                row = format == Format.CSV ? parseCsv(line, columns) : objectMapper.readValue(line, BulkUserRow.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                write(out, BulkUserResult.rejected(lineNumber, "Malformed row"));
+                continue;
+            }
+
+            String error = validate(row);
+            if (error == null) {
+                if (!seenEmails.add(Identifiers.normalize(row.getEmail()))) {
+                    error = "Email appears more than once in the upload: " + row.getEmail();
+                } else if (!seenUsernames.add(Identifiers.normalize(row.getUsername()))) {
+                    error = "Username appears more than once in the upload: " + row.getUsername();
+                }
+            }
+            if (error != null) {
+                write(out, BulkUserResult.rejected(lineNumber, error));
+                continue;
+            }
+
+            chunk.add(new PendingUser(lineNumber, row));
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, out);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, out);
+        }
+        out.flush();
+    }
+
+    private void processChunk(List<PendingUser> chunk, OutputStream out) throws IOException {
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmailsNormalized(
+                chunk.stream().map(PendingUser::emailNormalized).toList()));
+        Set<String> existingUsernames = new HashSet<>(userRepository.findExistingUsernamesNormalized(
+                chunk.stream().map(PendingUser::usernameNormalized).toList()));
+
+        List<PendingUser> accepted = new ArrayList<>(chunk.size());
+        for (PendingUser pending : chunk) {
+            if (existingEmails.contains(pending.emailNormalized())) {
+                write(out, BulkUserResult.rejected(pending.line(),
+                        "There is already an account with the email address: " + pending.row().getEmail()));
+            } else if (existingUsernames.contains(pending.usernameNormalized())) {
+                write(out, BulkUserResult.rejected(pending.line(),
+                        "There is already an account with the username: " + pending.row().getUsername()));
+            } else {
+                accepted.add(pending);
+            }
+        }
+        if (accepted.isEmpty()) {
+            out.flush();
+            return;
+        }
+
+        List<String> hashes = passwordHashingService.encodeAll(
+                accepted.stream().map(p -> p.row().getPassword()).toList());
+        List<NewUser> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            users.add(new NewUser(accepted.get(i), hashes.get(i)));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(users));
+            for (NewUser user : users) {
+                write(out, BulkUserResult.created(user.pending().line(), user.id()));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // someone registered one of these accounts after the check; find out which row it was
+            insertIndividually(users, out);
+        }
+        out.flush();
+    }
+
+    private void insertIndividually(List<NewUser> users, OutputStream out) throws IOException {
+        for (NewUser user : users) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(user)));
+                write(out, BulkUserResult.created(user.pending().line(), user.id()));
+            } catch (DuplicateKeyException e) {
+                write(out, BulkUserResult.rejected(user.pending().line(), UserService.duplicateAccountMessage(e,
+                        user.pending().row().getEmail(), user.pending().row().getUsername())));
+            } catch (DataIntegrityViolationException e) {
+                write(out, BulkUserResult.rejected(user.pending().line(), "The account could not be stored"));
+            }
+        }
+    }
+
+    private void insert(List<NewUser> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        List<Object[]> credentialRows = new ArrayList<>(users.size());
+        List<Object[]> roleRows = new ArrayList<>(users.size());
+        for (NewUser user : users) {
+            BulkUserRow row = user.pending().row();
+            byte[] userId = UuidBytes.toBytes(user.id());
+            RoleType roleType = roleTypeOf(row);
+            userRows.add(new Object[]{userId, row.getUsername(), row.getEmail(), row.getFullName(), now,
+                    user.pending().usernameNormalized(), user.pending().emailNormalized()});
+            credentialRows.add(new Object[]{UuidBytes.toBytes(UuidV7Generator.next()), userId, user.passwordHash(), now});
+            roleRows.add(new Object[]{UuidBytes.toBytes(UuidV7Generator.next()), userId,
+                    UuidBytes.toBytes(roleCatalog.get(roleType).getId()), roleType == RoleType.USER});
+        }
+        jdbcTemplate.batchUpdate(INSERT_USER, userRows);
+        jdbcTemplate.batchUpdate(INSERT_CREDENTIAL, credentialRows);
+        jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roleRows);
+    }
+
+    private static String validate(BulkUserRow row) {
+        if (isBlank(row.getUsername()) || isBlank(row.getEmail()) || isBlank(row.getPassword())) {
+            return "username, email and password are required";
+        }
+        if (Identifiers.isEmail(row.getUsername())) {
+            return "Username cannot contain '@'";
+        }
+        if (!Identifiers.isEmail(row.getEmail())) {
+            return "Invalid email address: " + row.getEmail();
+        }
+        if (row.getUsername().length() > User.USERNAME_MAX_LENGTH) {
+            return "Username must be at most " + User.USERNAME_MAX_LENGTH + " characters";
+        }
+        if (row.getEmail().length() > User.EMAIL_MAX_LENGTH) {
+            return "Email must be at most " + User.EMAIL_MAX_LENGTH + " characters";
+        }
+        if (row.getFullName() != null && row.getFullName().length() > User.FULL_NAME_MAX_LENGTH) {
+            return "Full name must be at most " + User.FULL_NAME_MAX_LENGTH + " characters";
+        }
+        if (row.getRoleType() == RoleType.ADMIN) {
+            return "Administrators cannot be provisioned in bulk";
+        }
+        return null;
+    }
+
+    private static RoleType roleTypeOf(BulkUserRow row) {
+        return row.getRoleType() == null ? RoleType.USER : row.getRoleType();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private void write(OutputStream out, BulkUserResult result) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    private static BulkUserRow parseCsv(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        String roleType = csvValue(values, columns, "roleType");
+        return new BulkUserRow(
+                csvValue(values, columns, "username"),
+                csvValue(values, columns, "email"),
+                csvValue(values, columns, "fullName"),
+                csvValue(values, columns, "password"),
+                isBlank(roleType) ? null : RoleType.valueOf(roleType.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    private static String csvValue(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= values.size() ? null : values.get(index);
+    }
+
+    /**
+     * Splits one CSV record. Fields may be double-quoted, with {@code ""} for a literal quote;
+     * records spanning several lines are not supported.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record PendingUser(long line, BulkUserRow row) {
+        String emailNormalized() {
+            return Identifiers.normalize(row.getEmail());
+        }
+
+        String usernameNormalized() {
+            return Identifiers.normalize(row.getUsername());
+        }
+    }
+
+    private record NewUser(UUID id, PendingUser pending, String passwordHash) {
+        NewUser(PendingUser pending, String passwordHash) {
+            this(UuidV7Generator.next(), pending, passwordHash);
+        }
+    }
+}
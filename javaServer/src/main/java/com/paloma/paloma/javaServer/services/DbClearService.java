@@ -1,57 +1,154 @@
 package com.paloma.paloma.javaServer.services;
 
-import com.paloma.paloma.javaServer.repositories.*;
-import lombok.RequiredArgsConstructor;
+import com.paloma.paloma.javaServer.caches.UserProfileCache;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.ClearDatabaseResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.TableClearResult;
+import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service for clearing all data from the database.
  * This is intended for testing purposes only.
+ * <p>
+ * Tables are emptied with one statement each instead of loading and deleting every entity, so a
+ * reset takes about as long as the database needs to drop the rows.
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class DbClearService {
 
-    private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final UserRoleRepository userRoleRepository;
-    private final AuthCredRepository authCredRepository;
-    private final RefreshAuthRepository refreshAuthRepository;
-    private final AlertRepository alertRepository;
-    private final DailyCheckinRepository dailyCheckinRepository;
-    private final MedLogRepository medLogRepository;
-    private final MedicationRepository medicationRepository;
-    private final TrustedContactRepository trustedContactRepository;
+    /**
+     * How the tables are emptied.
+     */
+    public enum Mode {
+        /**
+         * One {@code DELETE} per table in foreign key order, all in one transaction, so a failure
+         * leaves the data as it was.
+         */
+        DELETE,
+        /**
+         * {@code TRUNCATE} per table with foreign key checks suspended. Much faster on large
+         * tables because nothing is written to the undo log, but each table is committed on its own.
+         */
+        TRUNCATE
+    }
+
+    /**
+     * Every table holding user data, children before the tables they reference.
+     * Roles are fixed reference rows held by RoleCatalog and are kept.
+     */
+    static final List<String> TABLES = List.of(
+            "alerts",
+            "med_logs",
+            "refresh_auth",
+            "revoked_tokens",
+            "auth_credentials",
+            "user_roles",
+            "daily_checkins",
+            "score_history",
+            "alert_sensitivity",
+            "trusted_contacts",
+            "medications",
+            "users");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserProfileCache userProfileCache;
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+
+    public DbClearService(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          EntityManagerFactory entityManagerFactory,
+                          UserProfileCache userProfileCache,
+                          JwtUtil jwtUtil,
+                          TokenRevocationService tokenRevocationService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.userProfileCache = userProfileCache;
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+    }
 
     /**
      * Clears all data from the database.
-     * This method uses @Transactional to ensure that all deletions happen in a single transaction.
-     * If any deletion fails, all changes will be rolled back.
+     *
+     * @param mode How the tables are emptied
+     * @return The rows removed per table and the time taken
      */
-    @Transactional
-    public void clearAllData() {
-        // Clear data in a specific order to avoid foreign key constraint violations
-        
-        // First, clear entities that depend on other entities (child tables)
-        // Delete alerts before trusted contacts since alerts reference trusted contacts
-        alertRepository.deleteAll();
-        medLogRepository.deleteAll();
-        
-        // Delete other child entities
-        refreshAuthRepository.deleteAll();
-        authCredRepository.deleteAll();
-        userRoleRepository.deleteAll();
-        dailyCheckinRepository.deleteAll();
-        trustedContactRepository.deleteAll();
-        medicationRepository.deleteAll();
-        
-        // Then clear parent entities
-        userRepository.deleteAll();
-        roleRepository.deleteAll();
-
-        
-        // Log a message indicating that the database has been cleared
-        System.out.println("Database cleared successfully at " + java.time.LocalDateTime.now());
+    public ClearDatabaseResponse clearAllData(Mode mode) {
+        long start = System.nanoTime();
+        List<TableClearResult> tables = mode == Mode.TRUNCATE
+                ? truncateAll()
+                : transactionTemplate.execute(status -> deleteAll());
+
+        // the rows were removed behind Hibernate's back, cached entities and query results are stale
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        // Deleted accounts must not be served from the profile cache
+        userProfileCache.evictAll();
+        // nor tokens of deleted accounts from the verified token cache, and revoked_tokens is gone
+        jwtUtil.evictVerifiedTokens();
+        tokenRevocationService.clear();
+
+        long elapsedMillis = millisSince(start);
+        log.info("Database cleared ({}, {} ms)", mode, elapsedMillis);
+        return new ClearDatabaseResponse(true, "Database cleared successfully", mode.name(), elapsedMillis, tables);
+    }
+
+    private List<TableClearResult> deleteAll() {
+        List<TableClearResult> results = new ArrayList<>();
+        for (String table : TABLES) {
+            long start = System.nanoTime();
+            int rows = jdbcTemplate.update("DELETE FROM " + table);
+            results.add(new TableClearResult(table, rows, millisSince(start)));
+        }
+        return results;
+    }
+
+    /**
+     * Runs on one connection because the foreign key check switch only applies to its session.
+     * TRUNCATE does not report how many rows it removed, so they are counted first.
+     */
+    private List<TableClearResult> truncateAll() {
+        return jdbcTemplate.execute((ConnectionCallback<List<TableClearResult>>) connection -> {
+            List<TableClearResult> results = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                try {
+                    for (String table : TABLES) {
+                        long start = System.nanoTime();
+                        long rows;
+                        try (ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                            count.next();
+                            rows = count.getLong(1);
+                        }
+                        statement.execute("TRUNCATE TABLE " + table);
+                        results.add(new TableClearResult(table, rows, millisSince(start)));
+                    }
+                } finally {
+                    // the connection goes back to the pool
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+            }
+            return results;
+        });
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.AlertHistoryItem;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.CheckinHistoryItem;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.HistoryPageResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.MedLogHistoryItem;
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.repositories.AlertRepository;
+import com.paloma.paloma.javaServer.repositories.DailyCheckinRepository;
+import com.paloma.paloma.javaServer.repositories.DailyCheckinRepository.CheckinEntry;
+import com.paloma.paloma.javaServer.repositories.MedLogRepository;
+import com.paloma.paloma.javaServer.utilites.KeysetCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Pages through a user's check-ins, medication logs and alerts, newest first.
+ * <p>
+ * Pages are keyset-paginated: each one ends with a {@link KeysetCursor} of the (date, id) of its
+ * last row, and the next page asks for the rows after it. The database seeks straight to that
+ * position in the user's index range instead of counting off an offset, so page 500 reads as
+ * many rows as page 1. One extra row is fetched to tell whether there is a next page, which
+ * saves the count query offset pagination needs.
+ */
+@Service
+@Transactional(readOnly = true)
+public class HistoryService {
+
+    private final DailyCheckinRepository dailyCheckinRepository;
+    private final MedLogRepository medLogRepository;
+    private final AlertRepository alertRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public HistoryService(DailyCheckinRepository dailyCheckinRepository,
+                          MedLogRepository medLogRepository,
+                          AlertRepository alertRepository,
+                          @Value("${paloma.history.default-page-size:20}") int defaultPageSize,
+                          @Value("${paloma.history.max-page-size:100}") int maxPageSize) {
+        this.dailyCheckinRepository = dailyCheckinRepository;
+        this.medLogRepository = medLogRepository;
+        this.alertRepository = alertRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @param user   The user whose check-ins are listed, a reference is enough
+     * @param cursor The {@code nextCursor} of the previous page, or null for the first page
+     * @param limit  The page size, or null for the default
+     * @return The page, or success=false for an invalid cursor or limit
+     */
+    public HistoryPageResponse<CheckinHistoryItem> getCheckins(User user, String cursor, Integer limit) {
+        UUID userId = user.getId();
+        return page(cursor, limit, LocalDate::parse,
+                pageable -> dailyCheckinRepository.findCheckinPage(userId, pageable),
+                (after, pageable) -> dailyCheckinRepository.findCheckinPageAfter(userId, after.position(),
+                        after.id(), pageable),
+                entry -> new KeysetCursor<>(entry.getDate(), entry.getId()),
+                HistoryService::toItem);
+    }
+
+    /**
+     * @param user   The user whose medication logs are listed, a reference is enough
+     * @param cursor The {@code nextCursor} of the previous page, or null for the first page
+     * @param limit  The page size, or null for the default
+     * @return The page, or success=false for an invalid cursor or limit
+     */
+    public HistoryPageResponse<MedLogHistoryItem> getMedLogs(User user, String cursor, Integer limit) {
+        UUID userId = user.getId();
+        return page(cursor, limit, LocalDate::parse,
+                pageable -> medLogRepository.findMedLogPage(userId, pageable),
+                (after, pageable) -> medLogRepository.findMedLogPageAfter(userId, after.position(),
+                        after.id(), pageable),
+                entry -> new KeysetCursor<>(entry.getDate(), entry.getId()),
+                entry -> new MedLogHistoryItem(entry.getDate(), entry.getMedicationName(), entry.getTaken()));
+    }
+
+    /**
+     * @param user   The user whose alerts are listed, a reference is enough
+     * @param cursor The {@code nextCursor} of the previous page, or null for the first page
+     * @param limit  The page size, or null for the default
+     * @return The page, or success=false for an invalid cursor or limit
+     */
+    public HistoryPageResponse<AlertHistoryItem> getAlerts(User user, String cursor, Integer limit) {
+        UUID userId = user.getId();
+        return page(cursor, limit, LocalDateTime::parse,
+                pageable -> alertRepository.findAlertPage(userId, pageable),
+                (after, pageable) -> alertRepository.findAlertPageAfter(userId, after.position(),
+                        after.id(), pageable),
+                entry -> new KeysetCursor<>(entry.getTriggeredAt(), entry.getId()),
+                entry -> new AlertHistoryItem(entry.getTriggeredAt(), entry.getReason(),
+                        entry.getContactEmail(), entry.getWasSent()));
+    }
+
+    private <K, E, T> HistoryPageResponse<T> page(String cursor, Integer limit, Function<String, K> parser,
+                                                  Function<Pageable, List<E>> firstPage,
+                                                  PageAfter<K, E> pageAfter,
+                                                  Function<E, KeysetCursor<K>> position,
+                                                  Function<E, T> item) {
+        int size = limit == null ? defaultPageSize : limit;
+        if (size < 1 || size > maxPageSize) {
+            return new HistoryPageResponse<>(false, "Limit must be between 1 and " + maxPageSize, null, null);
+        }
+        KeysetCursor<K> after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = KeysetCursor.decode(cursor, parser);
+            } catch (IllegalArgumentException e) {
+                return new HistoryPageResponse<>(false, "Invalid cursor", null, null);
+            }
+        }
+
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<E> rows = after == null ? firstPage.apply(pageable) : pageAfter.find(after, pageable);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = position.apply(rows.get(size - 1)).encode();
+        }
+        return new HistoryPageResponse<>(true, "History retrieved successfully",
+                rows.stream().map(item).toList(), nextCursor);
+    }
+
+    private static CheckinHistoryItem toItem(CheckinEntry entry) {
+        return new CheckinHistoryItem(entry.getDate(), entry.getMoodScore(), entry.getEnergyScore(),
+                entry.getMotivationScore(), entry.getSuicidalScore(), entry.getTotalScore(), entry.getNotes());
+    }
+
+    @FunctionalInterface
+    private interface PageAfter<K, E> {
+        List<E> find(KeysetCursor<K> after, Pageable pageable);
+    }
+}
@@ -0,0 +1,104 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paloma.paloma.javaServer.exceptions.LoginThrottledException;
+import com.paloma.paloma.javaServer.utilites.Identifiers;
+import com.paloma.paloma.javaServer.utilites.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits login attempts per identifier and per client address before any database or BCrypt work is done.
+ * Each key gets a {@link TokenBucket}; buckets live in bounded maps and are dropped once they have been idle
+ * long enough to be full again, so evicting them never forgives an attempt.
+ */
+@Service
+public class LoginThrottleService {
+
+    private static final String THROTTLED_MESSAGE = "Too many login attempts, try again later";
+
+    private final Limit identifierLimit;
+    private final Limit addressLimit;
+    private final Cache<String, TokenBucket> identifierBuckets;
+    private final Cache<String, TokenBucket> addressBuckets;
+
+    private Counter identifierRejections;
+    private Counter addressRejections;
+
+    public LoginThrottleService(@Value("${paloma.login-throttle.identifier.capacity:5}") int identifierCapacity,
+                                @Value("${paloma.login-throttle.identifier.refill-interval:12s}") Duration identifierRefill,
+                                @Value("${paloma.login-throttle.address.capacity:30}") int addressCapacity,
+                                @Value("${paloma.login-throttle.address.refill-interval:2s}") Duration addressRefill,
+                                @Value("${paloma.login-throttle.max-tracked-keys:100000}") long maxTrackedKeys) {
+        this.identifierLimit = new Limit(identifierCapacity, identifierRefill.toNanos());
+        this.addressLimit = new Limit(addressCapacity, addressRefill.toNanos());
+        this.identifierBuckets = buckets(identifierLimit, maxTrackedKeys);
+        this.addressBuckets = buckets(addressLimit, maxTrackedKeys);
+    }
+
+    /**
+     * Publishes rejected attempts as {@code paloma.login.throttled}, tagged by the limit that rejected them.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        identifierRejections = Counter.builder("paloma.login.throttled")
+                .tag("key", "identifier")
+                .description("Login attempts rejected by the rate limiter")
+                .register(meterRegistry);
+        addressRejections = Counter.builder("paloma.login.throttled")
+                .tag("key", "address")
+                .description("Login attempts rejected by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a login attempt.
+     *
+     * @param identifier The email or username the caller tries to log in as
+     * @param clientAddress The address of the caller
+     * @throws LoginThrottledException If either the identifier or the address is over its limit
+     */
+    public void checkAttempt(String identifier, String clientAddress) throws LoginThrottledException {
+        if (clientAddress != null) {
+            reject(bucket(addressBuckets, addressLimit, clientAddress).tryConsume(), addressRejections);
+        }
+        if (identifier != null) {
+            reject(bucket(identifierBuckets, identifierLimit, Identifiers.normalize(identifier)).tryConsume(), identifierRejections);
+        }
+    }
+
+    private void reject(long waitNanos, Counter rejections) {
+        if (waitNanos == 0) {
+            return;
+        }
+        if (rejections != null) {
+            rejections.increment();
+        }
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        throw new LoginThrottledException(THROTTLED_MESSAGE, retryAfterSeconds);
+    }
+
+    private static TokenBucket bucket(Cache<String, TokenBucket> buckets, Limit limit, String key) {
+        return buckets.get(key, k -> new TokenBucket(limit.capacity(), limit.refillIntervalNanos(), System::nanoTime));
+    }
+
+    private static Cache<String, TokenBucket> buckets(Limit limit, long maxTrackedKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                // an idle bucket is full again after this long, so forgetting it changes nothing
+                .expireAfterAccess(Duration.ofNanos(limit.refillIntervalNanos() * limit.capacity()))
+                .build();
+    }
+
+    private record Limit(int capacity, long refillIntervalNanos) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.paloma.paloma.javaServer.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the monthly RANGE COLUMNS partitions of {@code daily_checkins} and {@code med_logs}
+ * (see migration 010) ahead of the calendar and within the retention policy.
+ * <p>
+ * Each table ends with a catch-all partition {@code pmax}. Every run splits the months up to
+ * {@code paloma.partitions.months-ahead} off it while it is still empty, which only changes
+ * metadata. Months that ended more than {@code paloma.partitions.retention-months} ago are
+ * removed whole: dropped, or first swapped into a standalone {@code <table>_archive_pYYYYMM}
+ * table when {@code paloma.partitions.archive} is set. Score histories keep their totals, but a
+ * rebuild only sees the rows that are left.
+ * <p>
+ * Tables that are not partitioned are skipped, and so are tables whose partitions are not laid
+ * out as migration 010 creates them, with a warning. DDL from two instances can collide; the
+ * loser logs a warning and the next run finds the work done.
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceService {
+
+    static final String CATCH_ALL = "pmax";
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> tables;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean archive;
+
+    private Counter createdPartitions;
+    private Counter removedPartitions;
+
+    /**
+     * A partition and the first date it does not hold; {@code null} for {@code MAXVALUE}.
+     */
+    record Partition(String name, LocalDate lessThan) {
+    }
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       @Value("${paloma.partitions.tables:daily_checkins,med_logs}") List<String> tables,
+                                       @Value("${paloma.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${paloma.partitions.retention-months:0}") int retentionMonths,
+                                       @Value("${paloma.partitions.archive:true}") boolean archive) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tables = tables;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archive = archive;
+    }
+
+    /**
+     * Publishes the number of monthly partitions created and removed.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        createdPartitions = Counter.builder("paloma.partitions.created")
+                .description("Monthly partitions split off the catch-all partition")
+                .register(meterRegistry);
+        removedPartitions = Counter.builder("paloma.partitions.removed")
+                .description("Monthly partitions dropped or archived by the retention policy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs once at startup so a deployment after a long pause does not wait for the night.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${paloma.partitions.cron:0 15 3 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        for (String table : tables) {
+            try {
+                maintain(table.trim(), today);
+            } catch (DataAccessException e) {
+                log.warn("Partition maintenance of {} failed: {}", table, e.getMessage());
+            } catch (IllegalStateException | DateTimeParseException e) {
+                // a layout we do not manage; failing here would also stop the application from starting
+                log.warn("Skipping partition maintenance of {}: {}", table, e.getMessage());
+            }
+        }
+    }
+
+    void maintain(String table, LocalDate today) {
+        List<Partition> partitions = findPartitions(table);
+        if (partitions.isEmpty()) {
+            log.debug("Table {} is not partitioned, skipping", table);
+            return;
+        }
+        List<YearMonth> months = missingMonths(table, partitions, YearMonth.from(today).plusMonths(monthsAhead));
+        if (!months.isEmpty()) {
+            jdbcTemplate.execute(splitStatement(table, months));
+            if (createdPartitions != null) {
+                createdPartitions.increment(months.size());
+            }
+            log.info("Created partitions {} to {} of {}", partitionName(months.get(0)),
+                    partitionName(months.get(months.size() - 1)), table);
+        }
+        if (retentionMonths > 0) {
+            LocalDate cutoff = YearMonth.from(today).minusMonths(retentionMonths).atDay(1);
+            for (Partition expired : expiredPartitions(partitions, cutoff)) {
+                for (String statement : removeStatements(table, expired, archive)) {
+                    jdbcTemplate.execute(statement);
+                }
+                if (removedPartitions != null) {
+                    removedPartitions.increment();
+                }
+                log.info("{} partition {} of {}", archive ? "Archived" : "Dropped", expired.name(), table);
+            }
+        }
+    }
+
+    private List<Partition> findPartitions(String table) {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> new Partition(rs.getString(1), parseBound(rs.getString(2))),
+                table);
+    }
+
+    /**
+     * Returns the months after the last bounded partition up to and including {@code lastMonth}.
+     */
+    static List<YearMonth> missingMonths(String table, List<Partition> partitions, YearMonth lastMonth) {
+        Partition last = partitions.get(partitions.size() - 1);
+        if (!CATCH_ALL.equals(last.name()) || last.lessThan() != null) {
+            throw new IllegalStateException("The last partition of " + table + " must be "
+                    + CATCH_ALL + " VALUES LESS THAN (MAXVALUE)");
+        }
+        LocalDate nextBound = partitions.size() > 1 ? partitions.get(partitions.size() - 2).lessThan() : null;
+        if (nextBound == null) {
+            throw new IllegalStateException("Table " + table + " has no bounded partition before " + CATCH_ALL);
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = YearMonth.from(nextBound); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * Splits the given months off the catch-all partition. While {@code pmax} is empty this
+     * moves no rows.
+     */
+    static String splitStatement(String table, List<YearMonth> months) {
+        List<String> definitions = new ArrayList<>();
+        for (YearMonth month : months) {
+            definitions.add("PARTITION " + partitionName(month) + " VALUES LESS THAN ('"
+                    + month.plusMonths(1).atDay(1) + "')");
+        }
+        definitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE)");
+        return "ALTER TABLE " + table + " REORGANIZE PARTITION " + CATCH_ALL + " INTO ("
+                + String.join(", ", definitions) + ")";
+    }
+
+    /**
+     * Returns the partitions that only hold dates before {@code cutoff}.
+     */
+    static List<Partition> expiredPartitions(List<Partition> partitions, LocalDate cutoff) {
+        return partitions.stream()
+                .filter(partition -> partition.lessThan() != null && !partition.lessThan().isAfter(cutoff))
+                .toList();
+    }
+
+    /**
+     * Archiving swaps the partition's rows into an empty standalone copy of the table, which
+     * only changes metadata, and then drops the now empty partition.
+     */
+    static List<String> removeStatements(String table, Partition partition, boolean archive) {
+        String drop = "ALTER TABLE " + table + " DROP PARTITION " + partition.name();
+        if (!archive) {
+            return List.of(drop);
+        }
+        String archiveTable = table + "_archive_" + partition.name();
+        return List.of(
+                "CREATE TABLE " + archiveTable + " LIKE " + table,
+                "ALTER TABLE " + archiveTable + " REMOVE PARTITIONING",
+                "ALTER TABLE " + table + " EXCHANGE PARTITION " + partition.name() + " WITH TABLE " + archiveTable,
+                drop);
+    }
+
+    static String partitionName(YearMonth month) {
+        return "p" + month.format(PARTITION_MONTH);
+    }
+
+    /**
+     * Parses a RANGE COLUMNS bound as information_schema reports it, e.g. {@code '2026-11-01'}.
+     */
+    static LocalDate parseBound(String description) {
+        if (description == null || description.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(description.replace("'", "").trim());
+    }
+}
@@ -0,0 +1,201 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs password hashing on a small dedicated pool instead of the request thread.
+ * BCrypt is deliberately slow and CPU bound; capping how many hashes run at once and how many
+ * may wait keeps a burst of logins from occupying every servlet thread. Requests beyond the
+ * queue limit are rejected immediately with {@link PasswordHashingUnavailableException},
+ * which controllers turn into 503 Service Unavailable.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final long BULK_RETRY_PAUSE_MS = 10;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchTimer;
+
+    private final Counter rejections;
+
+    /**
+     * @param passwordEncoder The configured encoder
+     * @param meterRegistry The registry provided by actuator
+     * @param threads Number of hashing threads, 0 means one per available processor
+     * @param queueCapacity Number of hashes allowed to wait for a thread, 0 means none
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${paloma.password-hashing.threads:0}") int threads,
+                                  @Value("${paloma.password-hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<>(queueCapacity)
+                : new SynchronousQueue<>();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, queue,
+                new CustomizableThreadFactory("password-hash-"), new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("paloma.password.hash")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("paloma.password.hash")
+                .description("Time spent hashing or verifying a password, excluding queueing")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("paloma.password.hash.rejected")
+                .description("Hash requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("paloma.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .description("Hash requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("paloma.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes a raw password.
+     *
+     * @param rawPassword The password to hash
+     * @return The encoded password
+     * @throws PasswordHashingUnavailableException If the hashing queue is full
+     */
+    public String encode(String rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    /**
+     * Hashes many passwords in parallel for bulk jobs.
+     * At most one task per hashing thread is submitted at a time, so a bulk job never fills the
+     * queue that interactive logins rely on; when the queue is full the job waits instead of failing.
+     *
+     * @param rawPasswords The passwords to hash
+     * @return The encoded passwords, in the same order
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        int window = executor.getCorePoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            List<Future<String>> futures = new ArrayList<>(window);
+            for (String rawPassword : rawPasswords.subList(from, Math.min(from + window, rawPasswords.size()))) {
+                futures.add(submitWhenAccepted(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)), futures));
+            }
+            for (Future<String> future : futures) {
+                encoded.add(await(future));
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Checks a raw password against a stored hash.
+     *
+     * @param rawPassword The password supplied by the user
+     * @param encodedPassword The stored hash
+     * @return true if they match
+     * @throws PasswordHashingUnavailableException If the hashing queue is full
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> matchTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Tells whether a stored hash was produced with weaker settings than the current encoder,
+     * e.g. after the BCrypt cost factor was raised. This only inspects the hash prefix and is cheap.
+     *
+     * @param encodedPassword The stored hash
+     * @return true if the password should be re-encoded the next time the raw value is known
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new PasswordHashingUnavailableException("Too many password operations in progress, try again shortly");
+        }
+        return await(future);
+    }
+
+    private <T> Future<T> submitWhenAccepted(Callable<T> task, List<Future<T>> outstanding) {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown()) {
+                    throw new PasswordHashingUnavailableException("Password hashing is shutting down");
+                }
+                // let interactive work drain before trying again
+                Future<T> oldest = outstanding.stream().filter(f -> !f.isDone()).findFirst().orElse(null);
+                if (oldest != null) {
+                    await(oldest);
+                } else {
+                    pause();
+                }
+            }
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(BULK_RETRY_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.paloma.paloma.javaServer.services;
 
-import com.paloma.paloma.javaServer.entities.RefreshAuth;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.JwtResponse;
 import com.paloma.paloma.javaServer.entities.User;
 import com.paloma.paloma.javaServer.repositories.RefreshAuthRepository;
+import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import com.paloma.paloma.javaServer.utilites.TokenDigest;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,50 +21,56 @@ import java.util.UUID;
 @Transactional
 public class RefreshService {
 
+    private static final int TOKEN_BYTES = 32;
+    static final int TOKEN_LIFETIME_DAYS = 7;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Autowired
     private final RefreshAuthRepository refreshAuthRepository;
-
-
-    public Optional<User> validate(String token) {
-        return refreshAuthRepository.findByToken(token)
-                .map(rt -> {
-                    if (rt.getExpiryDate().isBefore(LocalDateTime.now())) {
-                        refreshAuthRepository.delete(rt);  // Delete expired token
-                        return null;
-                    } else {
-                        return rt.getUser();
-                    }
-                });
-    }
-
-    public Optional<RefreshAuth> findByUserID(UUID userID) {
-        return refreshAuthRepository.findByUserId(userID);
+    private final JwtUtil jwtUtil;
+
+
+    /**
+     * Issues a new access token for a user that presents their current refresh token, and
+     * rotates the refresh token. The token is checked and replaced by a single statement, so the
+     * whole refresh is one round trip, no entity is loaded and a replayed token matches nothing.
+     * The rotated token keeps the expiry set at login, so a session ends
+     * {@value #TOKEN_LIFETIME_DAYS} days after login however often it is refreshed.
+     *
+     * @param userId The id of the user taken from the verified access token
+     * @param refreshToken The raw refresh token sent by the client
+     * @return The new access token and the refresh token replacing the one sent,
+     * or empty if the token is unknown, expired or belongs to someone else
+     */
+    public Optional<JwtResponse> refreshAccessToken(UUID userId, String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String rotatedToken = generateToken();
+        int rotated = refreshAuthRepository.rotateIfValid(
+                userId,
+                TokenDigest.sha256(refreshToken),
+                TokenDigest.sha256(rotatedToken),
+                now);
+        if (rotated == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new JwtResponse(
+                jwtUtil.generateAccessToken(userId), "Successfully refreshed token", rotatedToken));
     }
 
-
-    public RefreshAuth createRefreshToken(User user) {
-        String token = UUID.randomUUID().toString();
-        RefreshAuth refreshToken = new RefreshAuth(
-                null,
-                user,
-                token,
-                LocalDateTime.now().plusDays(7) // adjust duration as needed
-        );
-        return refreshAuthRepository.save(refreshToken);
-    }
-
-    public void deleteByToken(String token) {
-        refreshAuthRepository.findByToken(token)
-                .ifPresent(refreshAuthRepository::delete);
-    }
-
-
-
-
-
-
     public void revokeTokens(User user) {
         refreshAuthRepository.deleteByUser(user);
     }
 
+    /**
+     * @return A new refresh token of 256 random bits, URL-safe Base64 encoded
+     */
+    static String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
 }
@@ -0,0 +1,125 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.repositories.RefreshAuthRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired refresh tokens in the background.
+ * Rows are removed in chunks of {@code paloma.refresh-tokens.purge-chunk-size}, each chunk in its
+ * own transaction followed by a short pause, so logins that touch the same index range never wait
+ * behind one long delete. A chunk that hits a lock timeout ends the run; the rest is picked up
+ * by the next one.
+ */
+@Slf4j
+@Service
+public class RefreshTokenPurgeService {
+
+    private final RefreshAuthRepository refreshAuthRepository;
+    private final int chunkSize;
+    private final Duration pause;
+
+    private final AtomicLong lastRunRowsPerSecond = new AtomicLong();
+    private Counter deletedRows;
+    private Counter lockFailures;
+    private Timer chunkTimer;
+
+    public RefreshTokenPurgeService(RefreshAuthRepository refreshAuthRepository,
+                                    @Value("${paloma.refresh-tokens.purge-chunk-size:1000}") int chunkSize,
+                                    @Value("${paloma.refresh-tokens.purge-pause:50ms}") Duration pause) {
+        this.refreshAuthRepository = refreshAuthRepository;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    /**
+     * Publishes the purge metrics: deleted rows, the duration of each chunk (which is dominated
+     * by lock waits when logins contend with the purge), lock timeouts, and the throughput
+     * of the last run in rows per second.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        deletedRows = Counter.builder("paloma.refresh.purge.rows")
+                .description("Expired refresh tokens deleted")
+                .register(meterRegistry);
+        lockFailures = Counter.builder("paloma.refresh.purge.lock.failures")
+                .description("Purge chunks aborted because a lock could not be acquired")
+                .register(meterRegistry);
+        chunkTimer = Timer.builder("paloma.refresh.purge.chunk")
+                .description("Time to delete one chunk, including lock waits")
+                .register(meterRegistry);
+        Gauge.builder("paloma.refresh.purge.rows.per.second", lastRunRowsPerSecond, AtomicLong::get)
+                .description("Throughput of the last purge run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deletes all refresh tokens that have expired by now.
+     */
+    @Scheduled(fixedDelayString = "${paloma.refresh-tokens.purge-interval:PT1H}",
+            initialDelayString = "${paloma.refresh-tokens.purge-interval:PT1H}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        long start = System.nanoTime();
+        long total = 0;
+        try {
+            while (true) {
+                int deleted = deleteChunk(cutoff);
+                total += deleted;
+                if (deleted < chunkSize) {
+                    break;
+                }
+                pauseBetweenChunks();
+            }
+        } catch (PessimisticLockingFailureException e) {
+            if (lockFailures != null) {
+                lockFailures.increment();
+            }
+            log.warn("Refresh token purge stopped after {} rows: {}", total, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        lastRunRowsPerSecond.set(total * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private int deleteChunk(LocalDateTime cutoff) {
+        long chunkStart = System.nanoTime();
+        try {
+            int deleted = refreshAuthRepository.deleteExpiredChunk(cutoff, chunkSize);
+            if (deletedRows != null) {
+                deletedRows.increment(deleted);
+            }
+            return deleted;
+        } finally {
+            if (chunkTimer != null) {
+                chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void pauseBetweenChunks() throws InterruptedException {
+        if (!pause.isZero()) {
+            Thread.sleep(pause.toMillis());
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.paloma.paloma.javaServer.services;
 
+import com.paloma.paloma.javaServer.caches.RoleCatalog;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.AddRoleRequest;
 import com.paloma.paloma.javaServer.dataTransferObjects.responses.UserRolesResponse;
-import com.paloma.paloma.javaServer.entities.Role;
 import com.paloma.paloma.javaServer.entities.User;
 import com.paloma.paloma.javaServer.entities.UserRole;
 import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
 import com.paloma.paloma.javaServer.exceptions.UserException;
-import com.paloma.paloma.javaServer.repositories.RoleRepository;
 import com.paloma.paloma.javaServer.repositories.UserRepository;
 import com.paloma.paloma.javaServer.repositories.UserRoleRepository;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +23,7 @@ import java.util.UUID;
 public class RoleManagementService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
     private final UserRoleRepository userRoleRepository;
 
     @Transactional
@@ -38,18 +38,10 @@ public class RoleManagementService {
             throw new UserException("User already has role: " + request.getRoleType());
         }
 
-        // Find or create the role
-        Role role = roleRepository.findByRoleType(request.getRoleType())
-                .orElseGet(() -> {
-                    Role newRole = new Role();
-                    newRole.setRoleType(request.getRoleType());
-                    return roleRepository.save(newRole);
-                });
-
         // Create UserRole relationship
         UserRole userRole = new UserRole();
         userRole.setUser(user);
-        userRole.setRole(role);
+        userRole.setRole(roleCatalog.get(request.getRoleType()));
         userRole.setPrimary(request.isPrimary());
 
         // If this is set as primary, we need to update existing primary roles
@@ -115,6 +107,8 @@ public class RoleManagementService {
             if (user == null) return false;
 
             return userRoleRepository.findByUserAndRoleType(user, roleType).isPresent();
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,109 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.entities.ScoreHistory;
+import com.paloma.paloma.javaServer.repositories.DailyCheckinRepository;
+import com.paloma.paloma.javaServer.repositories.ScoreHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Maintains the {@link ScoreHistory} of each user. Every check-in is applied to the history in
+ * the transaction that writes it, so score reads are a single primary key lookup.
+ * {@link #rebuildAll()} regenerates the histories from {@code daily_checkins}: once after
+ * migration 008 is applied, to backfill the users who checked in before, and again whenever the
+ * data was corrected by hand.
+ */
+@Slf4j
+@Service
+public class ScoreHistoryService {
+
+    private final ScoreHistoryRepository scoreHistoryRepository;
+    private final DailyCheckinRepository dailyCheckinRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public ScoreHistoryService(ScoreHistoryRepository scoreHistoryRepository,
+                               DailyCheckinRepository dailyCheckinRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.scoreHistoryRepository = scoreHistoryRepository;
+        this.dailyCheckinRepository = dailyCheckinRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies a check-in to the history of its user. A user without a history gets one filled
+     * from the check-ins already stored, so users who checked in before the table existed
+     * start with complete histories rather than one made of this check-in alone.
+     * Must run in the transaction that writes the check-in.
+     *
+     * @param userId The user who checked in
+     * @param date The day of the check-in
+     * @param score Its total score
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UUID userId, LocalDate date, double score) {
+        ScoreHistory history = scoreHistoryRepository.findForUpdate(userId)
+                .orElseGet(() -> replay(new ScoreHistory(userId)));
+        history.record(date, score);
+        scoreHistoryRepository.save(history);
+    }
+
+    /**
+     * @param userId The id of the user
+     * @return The stored history, or empty if the user never checked in or the histories were
+     * not backfilled with {@link #rebuildAll()} yet
+     */
+    @Transactional(readOnly = true)
+    public Optional<ScoreHistory> find(UUID userId) {
+        return scoreHistoryRepository.findById(userId);
+    }
+
+    /**
+     * Regenerates the history of one user from their check-ins.
+     *
+     * @param userId The id of the user
+     */
+    @Transactional
+    public void rebuild(UUID userId) {
+        ScoreHistory history = scoreHistoryRepository.findForUpdate(userId)
+                .orElseGet(() -> new ScoreHistory(userId));
+        history.reset();
+        scoreHistoryRepository.save(replay(history));
+    }
+
+    /**
+     * Regenerates the histories of all users, one user per transaction so the rebuild never
+     * holds many locks at once, and drops histories of users without check-ins.
+     *
+     * @return The number of histories rebuilt
+     */
+    public int rebuildAll() {
+        List<UUID> userIds = dailyCheckinRepository.findUserIdsWithCheckins();
+        for (UUID userId : userIds) {
+            transactionTemplate.executeWithoutResult(status -> rebuild(userId));
+        }
+        Integer dropped = transactionTemplate.execute(status -> scoreHistoryRepository.deleteWithoutCheckins());
+        log.info("Rebuilt {} score histories, dropped {}", userIds.size(), dropped);
+        return userIds.size();
+    }
+
+    /**
+     * Records every stored check-in of the history's user into it, oldest first.
+     */
+    private ScoreHistory replay(ScoreHistory history) {
+        for (DailyCheckinRepository.DailyScore score : dailyCheckinRepository.findScoresByUserId(history.getUserId())) {
+            if (score.getTotalScore() != null) {
+                history.record(score.getDate(), score.getTotalScore());
+            }
+        }
+        return history;
+    }
+}
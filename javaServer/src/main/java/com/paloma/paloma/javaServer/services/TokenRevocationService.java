@@ -0,0 +1,150 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.entities.RevokedToken;
+import com.paloma.paloma.javaServer.repositories.RevokedTokenRepository;
+import com.paloma.paloma.javaServer.utilites.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Denylist of access tokens that were revoked before they expired, keyed by their {@code jti}.
+ * Lookups never touch the database: a Bloom filter answers the common "not revoked" case
+ * with a few hash probes, and only possible hits are confirmed against the in-memory map.
+ * Every revocation is also written to the {@code revoked_tokens} table, which is read once
+ * at startup so a restart does not resurrect revoked tokens.
+ * Entries are dropped once the token would have expired anyway.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${paloma.revoked-tokens.expected:100000}") int expectedRevocations) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Publishes the number of tracked revocations as {@code paloma.revoked.tokens}.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("paloma.revoked.tokens", revoked, Map::size)
+                .description("Revoked access tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the revocations that are still relevant from the database.
+     */
+    @PostConstruct
+    public void load() {
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            revoked.put(token.getTokenId(), token.getExpiresAt());
+        }
+        rebuildFilter();
+    }
+
+    /**
+     * Revokes an access token until its expiry. Inside a transaction the token is only
+     * denied once the revocation has committed.
+     * Tokens without an id or expiry cannot be tracked and are ignored.
+     *
+     * @param tokenId The {@code jti} of the token
+     * @param expiration The {@code exp} of the token
+     */
+    @Transactional
+    public void revoke(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null) {
+            return;
+        }
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        if (!expiresAt.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+        // a revocation that rolls back must not linger in memory until the next restart
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    track(tokenId, expiresAt);
+                }
+            });
+        } else {
+            track(tokenId, expiresAt);
+        }
+    }
+
+    private synchronized void track(String tokenId, LocalDateTime expiresAt) {
+        revoked.put(tokenId, expiresAt);
+        filter.add(tokenId);
+    }
+
+    /**
+     * Checks whether an access token was revoked.
+     *
+     * @param tokenId The {@code jti} of the token, may be null
+     * @return True if the token was revoked and has not expired yet
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        LocalDateTime expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt.isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * Drops revocations of tokens that have expired by now, from memory and from the database,
+     * and rebuilds the filter so it does not fill up with ids that are no longer tracked.
+     */
+    @Scheduled(fixedDelayString = "${paloma.revoked-tokens.purge-interval:PT15M}",
+            initialDelayString = "${paloma.revoked-tokens.purge-interval:PT15M}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        revokedTokenRepository.deleteExpired(now);
+        rebuildFilter();
+    }
+
+    /**
+     * Forgets every revocation held in memory, after the {@code revoked_tokens} table was emptied.
+     */
+    public synchronized void clear() {
+        revoked.clear();
+        rebuildFilter();
+    }
+
+    // synchronized with track() so a revocation cannot land in a filter that is being replaced
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+}
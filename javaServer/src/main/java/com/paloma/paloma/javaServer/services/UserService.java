@@ -1,5 +1,8 @@
 package com.paloma.paloma.javaServer.services;
 
+import com.paloma.paloma.javaServer.caches.RoleCatalog;
+import com.paloma.paloma.javaServer.caches.UserProfileCache;
+import com.paloma.paloma.javaServer.caches.UserSnapshot;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.AddRoleRequest;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.LoginRequest;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.RegisterRequest;
@@ -8,19 +11,22 @@ import com.paloma.paloma.javaServer.entities.*;
 import com.paloma.paloma.javaServer.entities.enums.RoleType;
 import com.paloma.paloma.javaServer.entities.enums.SensitivityLevel;
 import com.paloma.paloma.javaServer.exceptions.AuthenticationException;
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
 import com.paloma.paloma.javaServer.exceptions.UserException;
 import com.paloma.paloma.javaServer.repositories.*;
+import com.paloma.paloma.javaServer.utilites.Identifiers;
 import com.paloma.paloma.javaServer.utilites.JwtUtil;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -42,9 +48,9 @@ public class UserService {
 
     private final AuthCredRepository authCredentialsRepository;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
 
     private final UserRoleRepository userRoleRepository;
 
@@ -62,67 +68,89 @@ public class UserService {
 
     private final MedicationRepository medicationRepository;
 
-    private final MedLogRepository medLogRepository;
+    private final ActivityLogWriter activityLogWriter;
+
+    private final ScoreHistoryService scoreHistoryService;
 
     private final JwtUtil jwtUtil;
 
+    private final UserProfileCache userProfileCache;
+
 
 
 
     /**
      * Registers a new user in the system.
-     * Validates that the email, phone, and username are not already in use.
      * Creates a new user, assigns the requested role, and sets up the user-role relationship.
+     * The user, credential and user-role rows are written by a single flush, and duplicate emails
+     * or usernames (ignoring case) are detected by the unique indexes instead of separate lookups.
      * 
      * @param request The registration request containing user details
      * @return RegisterResponse with the registered user information
-     * @throws UserException If the email, phone, or username is already in use
+     * @throws UserException If the email or username is already in use
      */
-    @Transactional
+    @Transactional(rollbackFor = UserException.class)
     public RegisterResponse register(RegisterRequest request) throws UserException {
         User user = new User();
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
         user.setFullName(request.getFullName());
 
-        if (userRepository.existsByEmail(user.getEmail())){
-            throw new UserException("There is already an account with the email address: " + user.getEmail());
+        if (user.getUsername() != null && Identifiers.isEmail(user.getUsername())) {
+            throw new UserException("Username cannot contain '@'");
         }
-        if (userRepository.existsByUsername(user.getUsername())){
-            throw new UserException("There is already an account with the username: " + user.getUsername());
+        if (request.getRoleType() == RoleType.ADMIN) {
+            throw new UserException("Administrators cannot register themselves");
         }
-        // add user to db
-        userRepository.save(user);
 
-        String hashedPassword = passwordEncoder.encode(request.getPassword());
-        AuthCred authCred = new AuthCred();
+        String hashedPassword = passwordHashingService.encode(request.getPassword());
 
-        // add credentials to db
+        AuthCred authCred = new AuthCred();
         authCred.setUser(user);
         authCred.setPasswordHash(hashedPassword);
-        authCred.setCreatedAt(user.getCreatedAt());
-        authCredentialsRepository.save(authCred);
-
-        // add role infromation to db
-        Role role = new Role();
-        role.setRoleType(request.getRoleType());
-        roleRepository.save(role);
 
         UserRole userRole = new UserRole();
-        boolean primary = request.getRoleType().equals(USER);
         userRole.setUser(user);
-        userRole.setRole(role);
-        userRole.setPrimary(primary);
-        userRoleRepository.save(userRole);
+        userRole.setRole(roleCatalog.get(request.getRoleType()));
+        userRole.setPrimary(request.getRoleType().equals(USER));
 
+        userRepository.save(user);
+        authCredentialsRepository.save(authCred);
+        try {
+            // ids are generated client side, so nothing reaches the database before this flush
+            userRoleRepository.saveAndFlush(userRole);
+        } catch (DataIntegrityViolationException e) {
+            throw new UserException(duplicateAccountMessage(e, user.getEmail(), user.getUsername()));
+        }
 
         return new RegisterResponse(
                 "Successfully registered " + request.getFullName() + " with role: " + request.getRoleType().name());
     }
 
+    /**
+     * Names the identifier a unique key violation is about, by the index MySQL reports.
+     */
+    static String duplicateAccountMessage(DataIntegrityViolationException e, String email, String username) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        // MySQL reports "Duplicate entry '<value>' for key '<index>'"; only the index name is trustworthy
+        int key = cause.lastIndexOf(" for key ");
+        if (key >= 0) {
+            cause = cause.substring(key);
+        }
+        if (cause.contains("email")) {
+            return "There is already an account with the email address: " + email;
+        }
+        if (cause.contains("username")) {
+            return "There is already an account with the username: " + username;
+        }
+        return "There is already an account with this email address or username";
+    }
+
     /**
      * Authenticates a user and generates access and refresh tokens.
      * Updates the user's last login time and creates a new refresh token.
+     * If the stored hash was made with a lower BCrypt cost than currently configured,
+     * the password is re-encoded while the raw value is at hand.
      * 
      * @param request The login request containing user credentials
      * @return LoginResponse with access and refresh tokens
@@ -130,23 +158,33 @@ public class UserService {
      */
     @Transactional
     public LoginResponse login(LoginRequest request) throws AuthenticationException {
-        String identifier = request.getEmailOrUsername();
+        String identifier = Identifiers.normalize(request.getEmailOrUsername());
+        if (identifier == null) {
+            throw new AuthenticationException("Invalid credentials");
+        }
 
-        User user = userRepository.findByEmailOrUsername(identifier, identifier)
-                .orElseThrow(() -> new AuthenticationException("Invalid credentials"));
+        // one indexed lookup instead of an OR over both columns
+        Optional<User> found = Identifiers.isEmail(identifier)
+                ? userRepository.findByEmailNormalized(identifier)
+                : userRepository.findByUsernameNormalized(identifier);
+        User user = found.orElseThrow(() -> new AuthenticationException("Invalid credentials"));
 
         AuthCred auth = authCredentialsRepository.findByUserId(user.getId());
-        if (auth == null || !passwordEncoder.matches(request.getPassword(), auth.getPasswordHash())) {
+        if (auth == null || !passwordHashingService.matches(request.getPassword(), auth.getPasswordHash())) {
             throw new AuthenticationException("Invalid password");
         }
+        if (passwordHashingService.needsRehash(auth.getPasswordHash())) {
+            auth.setPasswordHash(passwordHashingService.encode(request.getPassword()));
+            authCredentialsRepository.save(auth);
+        }
 
         user.setLastLogin(LocalDateTime.now());
         userRepository.save(user); 
 
-        handleRefreshToken(user);
+        String refreshToken = handleRefreshToken(user);
 
         String accessToken = jwtUtil.generateAccessToken(user.getId());
-        return new LoginResponse(accessToken, "Welcome " + user.getFullName() + "!");
+        return new LoginResponse(accessToken, "Welcome " + user.getFullName() + "!", refreshToken);
     }
 
     /**
@@ -159,6 +197,22 @@ public class UserService {
        return userRepository.findById(userId);
     }
 
+    /**
+     * Returns a lazy reference to a user without querying the users table.
+     * Existence is checked against the profile cache; accessing anything other than the id
+     * still loads the row.
+     *
+     * @param userId The ID of the user
+     * @return A reference to the user
+     * @throws UserException If the user is not found
+     */
+    public User getUserReference(UUID userId) throws UserException {
+        if (userProfileCache.find(userId).isEmpty()) {
+            throw new UserException("User not found");
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
     /**
      * Updates a user's password.
      * Verifies that the old password is correct before updating.
@@ -171,44 +225,70 @@ public class UserService {
     @Transactional
     public void updatePassword(User user, String oldPassword, String newPassword) throws AuthenticationException {
         AuthCred auth = authCredentialsRepository.findByUserId(user.getId());
-        if (!passwordEncoder.matches(oldPassword, auth.getPasswordHash())) {
+        if (!passwordHashingService.matches(oldPassword, auth.getPasswordHash())) {
             throw new AuthenticationException("Invalid password");
         }
-        auth.setPasswordHash(passwordEncoder.encode(newPassword));
+        auth.setPasswordHash(passwordHashingService.encode(newPassword));
         authCredentialsRepository.save(auth);
     }
 
     /**
-     * Updates a user's email address.
+     * Updates a user's email address. Addresses taken by another user, ignoring case, are
+     * detected by the unique index, as in {@link #register}.
      * 
      * @param user The user whose email is being updated
      * @param newEmail The new email address
+     * @throws UserException If the address has no '@', so it could not be used to log in, or is already in use
      */
-    @Transactional
-    public void updateEmail(User user, String newEmail) {
+    @Transactional(rollbackFor = UserException.class)
+    public void updateEmail(User user, String newEmail) throws UserException {
+        if (newEmail == null || !Identifiers.isEmail(newEmail)) {
+            throw new UserException("Invalid email address: " + newEmail);
+        }
         user.setEmail(newEmail);
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UserException(duplicateAccountMessage(e, user.getEmail(), user.getUsername()));
+        }
+        userProfileCache.evict(user.getId());
     }
 
     /**
-     * Updates a user's username.
+     * Updates a user's username. Usernames taken by another user, ignoring case, are detected
+     * by the unique index, as in {@link #register}.
      * 
      * @param user The user whose username is being updated
      * @param newUsername The new username
+     * @throws UserException If the username contains '@' or is already in use
      */
-    @Transactional
-    public void updateUsername(User user, String newUsername)  {
+    @Transactional(rollbackFor = UserException.class)
+    public void updateUsername(User user, String newUsername) throws UserException {
+        if (newUsername != null && Identifiers.isEmail(newUsername)) {
+            throw new UserException("Username cannot contain '@'");
+        }
         user.setUsername(newUsername);
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UserException(duplicateAccountMessage(e, user.getEmail(), user.getUsername()));
+        }
+        userProfileCache.evict(user.getId());
     }
 
     @Transactional
     public UpdateAlertSensitivityResponse updateSensitivity(User user, SensitivityLevel sensitivity){
         try {
-            AlertSensitivity alertSensitivity = alertSensitivityRepository.getReferenceById(user.getId());
+            Optional<AlertSensitivity> alertSensitivityOptional = alertSensitivityRepository.findByUserId(user.getId());
+            if (alertSensitivityOptional.isEmpty()) {
+                return new UpdateAlertSensitivityResponse(false, "Alert sensitivity not found");
+            }
+            AlertSensitivity alertSensitivity = alertSensitivityOptional.get();
             alertSensitivity.setSensitivityLevel(sensitivity);
             alertSensitivityRepository.save(alertSensitivity);
             return new UpdateAlertSensitivityResponse(true, "Alert sensitivity updated successfully");
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new UpdateAlertSensitivityResponse(false, e.getMessage());
         }
@@ -226,7 +306,7 @@ public class UserService {
      */
     @Transactional
     public AddContactResponse addContact(User user, String contactEmail, String messageOnNotify) {
-        Optional<User> contactUserOptional = userRepository.findByEmail(contactEmail);
+        Optional<User> contactUserOptional = userRepository.findByEmailNormalized(Identifiers.normalize(contactEmail));
 
         if (contactUserOptional.isPresent()) {
             User contactUser = contactUserOptional.get();
@@ -247,12 +327,15 @@ public class UserService {
 
         } else {
             // Contact not found — invite them and tell the user to re-add later
-            return inviteNewContact(contactEmail, user.getFullName(), messageOnNotify);
+            String senderName = userProfileCache.find(user.getId())
+                    .map(UserSnapshot::fullName)
+                    .orElse(null);
+            return inviteNewContact(contactEmail, senderName, messageOnNotify);
         }
     }
     @Transactional
     public RemoveContactResponse removeContact(User user, String contactEmail) {
-        Optional<User> optionalContactUser = userRepository.findByEmail(contactEmail);
+        Optional<User> optionalContactUser = userRepository.findByEmailNormalized(Identifiers.normalize(contactEmail));
         User contactUser;
         if (optionalContactUser.isPresent()) {
             contactUser = optionalContactUser.get();
@@ -280,14 +363,21 @@ public class UserService {
 
     }
 
-    @Transactional
+    /**
+     * Records today's check-in, replacing an earlier one from the same day. The write is grouped
+     * with concurrent check-ins and medication logs by {@link ActivityLogWriter}; no transaction
+     * is held while waiting for it.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DailyCheckinResponse dailyCheckin(User user, Integer moodScore, Integer energyScore,
                                              Integer motivationScore, Integer suicidalScore, String notes) {
         try {
             DailyCheckin dailyCheckin = new DailyCheckin(user, LocalDate.now(), moodScore,
                     energyScore, motivationScore, suicidalScore, notes);
-            dailyCheckinRepository.save(dailyCheckin);
+            activityLogWriter.upsert(dailyCheckin);
             return new DailyCheckinResponse(true, "Daily checkin recorded successfully");
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new DailyCheckinResponse(false, e.getMessage());
         }
@@ -301,17 +391,24 @@ public class UserService {
             alertSensitivity.setUser(user);
             alertSensitivityRepository.save(alertSensitivity);
             return new AddAlertSensitivityResponse(true, "Alert sensitivity added successfully");
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AddAlertSensitivityResponse(false, e.getMessage());
         }
 
     }
 
-    @Transactional
+    /**
+     * Returns the total scores of the latest check-ins, newest first. They are read from the
+     * user's score history; only requests reaching further back than its window query the check-ins.
+     */
+    @Transactional(readOnly = true)
     public GetOverallScoresResponse getOverallScores(User user, Integer days) {
         UUID userId = user.getId();
-        Pageable pageable = PageRequest.of(0, days);
-        List<Integer> latestOverallScores = dailyCheckinRepository.findLatestOverallScoresByUserId(userId, pageable);
+        List<Double> latestOverallScores = scoreHistoryService.find(userId)
+                .flatMap(history -> history.latestScores(days))
+                .orElseGet(() -> findLatestScores(userId, days));
 
         if (latestOverallScores.isEmpty()) {
             // No scores found — let controller return 204
@@ -326,6 +423,42 @@ public class UserService {
         return new GetOverallScoresResponse(true, "Scores retrieved successfully", latestOverallScores);
     }
 
+    /**
+     * Most users check in daily, so their latest check-ins fall within the last {@code days} days
+     * and the bounded query only reads the newest partitions. Users with gaps need a second,
+     * unbounded query.
+     */
+    private List<Double> findLatestScores(UUID userId, int days) {
+        PageRequest latest = PageRequest.of(0, days);
+        List<Double> scores = dailyCheckinRepository.findLatestOverallScoresByUserId(userId,
+                LocalDate.now().minusDays(days - 1L), latest);
+        if (scores.size() < days) {
+            scores = dailyCheckinRepository.findLatestOverallScoresByUserId(userId, latest);
+        }
+        return scores;
+    }
+
+    /**
+     * Summarizes the check-in scores of a user: the last score and the averages over all time
+     * and the last 7, 30 and 90 days, all read from the user's score history.
+     */
+    @Transactional(readOnly = true)
+    public GetScoreTrendResponse getScoreTrend(User user) {
+        Optional<ScoreHistory> found = scoreHistoryService.find(user.getId());
+        if (found.isEmpty()) {
+            return new GetScoreTrendResponse(true, "No scores found", null, null, 0,
+                    null, null, null, null);
+        }
+        ScoreHistory history = found.get();
+        LocalDate today = LocalDate.now();
+        return new GetScoreTrendResponse(true, "Score trend retrieved successfully",
+                history.getLastScore(), history.getLastDate(), history.getCheckinCount(),
+                history.allTimeAverage().orElse(null),
+                history.averageOver(7, today).orElse(null),
+                history.averageOver(30, today).orElse(null),
+                history.averageOver(90, today).orElse(null));
+    }
+
     @Transactional
     public AddMedicationResponse addMedication(User user, String medicationName, String dosage, String schedule){
         try{
@@ -338,13 +471,20 @@ public class UserService {
             medication.setCreatedAt(LocalDateTime.now());
             medicationRepository.save(medication);
             return new AddMedicationResponse(true, "Medication added successfully");
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AddMedicationResponse(false, "Failed to add medication " + e.getMessage());
         }
 
     }
 
-    @Transactional
+    /**
+     * Logs that a medication was taken today; logging it twice on one day keeps a single row.
+     * The write is grouped with concurrent check-ins and medication logs by {@link ActivityLogWriter}
+     * and never loads the medication's existing logs; no transaction is held while waiting for it.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AddMedicationLogResponse addMedicationLog(User user, String medicationName){
         try{
             Optional<Medication> medicationOptional = medicationRepository.findByNameAndUserId(medicationName,
@@ -357,13 +497,14 @@ public class UserService {
                 medLog.setDate(LocalDate.now());
                 medLog.setTaken(true);
                 medLog.setCreatedAt(LocalDateTime.now());
-                medLogRepository.save(medLog);
-                medication.addMedLog(medLog);
+                activityLogWriter.upsert(medLog);
                 return new AddMedicationLogResponse(true, "Medication log added successfully");
             } else {
                 return new AddMedicationLogResponse(false, "Medication not found");
             }
 
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AddMedicationLogResponse(false, "Failed to add medication log " + e.getMessage());
         }
@@ -386,7 +527,9 @@ public class UserService {
                 return new UpdateMedicationResponse(false, "Medication not found");
             }
 
-        }catch (Exception e) {
+        } catch (QueryBudgetExceededException e) {
+            throw e;
+        } catch (Exception e) {
             return new UpdateMedicationResponse(false, "Failed to update medication " + e.getMessage());
         }
     }
@@ -401,6 +544,8 @@ public class UserService {
             trustedContactRepository.save(trustedContact);
 
             return new AddContactResponse(true, "Contact added successfully", true);
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AddContactResponse(false, "Failed to add contact: " + e.getMessage(), true);
         }
@@ -416,24 +561,32 @@ public class UserService {
                     false,
                     emailSent
             );
+        } catch (QueryBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             return new AddContactResponse(false, "Failed to add contact: " + e.getMessage(), false);
         }
     }
 
-    private void handleRefreshToken(User user) {
-        Optional<RefreshAuth> existing = refreshAuthRepository.findByUserId(user.getId());
-
-        if (existing.isEmpty() || existing.get().getExpiryDate().isBefore(LocalDateTime.now())) {
-            existing.ifPresent(refreshAuthRepository::delete);
-
-            RefreshAuth newToken = new RefreshAuth();
-            newToken.setUser(user);
-            newToken.setToken(jwtUtil.generateRefreshToken(user.getId()));
-            newToken.setExpiryDate(LocalDateTime.now().plusDays(7));
-
-            refreshAuthRepository.save(newToken);
-        }
+    /**
+     * Starts a new refresh session for a user. The user keeps a single refresh token, so a
+     * login replaces the one issued before; only its digest is stored.
+     *
+     * @param user The user that logged in
+     * @return The raw refresh token, which only the client holds from now on
+     */
+    private String handleRefreshToken(User user) {
+        RefreshAuth refreshAuth = refreshAuthRepository.findByUserId(user.getId()).orElseGet(() -> {
+            RefreshAuth created = new RefreshAuth();
+            created.setUser(user);
+            return created;
+        });
+
+        String token = RefreshService.generateToken();
+        refreshAuth.setToken(token);
+        refreshAuth.setExpiryDate(LocalDateTime.now().plusDays(RefreshService.TOKEN_LIFETIME_DAYS));
+        refreshAuthRepository.save(refreshAuth);
+        return token;
     }
 
 
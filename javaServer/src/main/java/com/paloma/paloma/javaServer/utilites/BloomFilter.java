@@ -0,0 +1,99 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter over strings.
+ * {@link #mightContain(String)} never returns false for a value that was added, and returns true
+ * for a value that was not added with roughly the configured false positive rate while the filter
+ * holds no more than its expected number of values.
+ * Values cannot be removed; build a new filter instead.
+ * Safe for concurrent use.
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedValues The number of values the filter is sized for
+     * @param falsePositiveRate The target false positive rate at that size, between 0 and 1
+     */
+    public BloomFilter(int expectedValues, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        int n = Math.max(1, expectedValues);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    private long index(int combinedHash) {
+        // flip negative hashes instead of taking abs, which fails for Integer.MIN_VALUE
+        int positive = combinedHash < 0 ? ~combinedHash : combinedHash;
+        return positive % bitCount;
+    }
+
+    /**
+     * 64-bit FNV-1a followed by a final avalanche step, split by callers into two 32-bit hashes
+     * for double hashing.
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,195 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Collects items submitted by many threads and hands them to a writer in groups, so that
+ * concurrent single-row writes share one transaction and one batched statement.
+ * A group is written once the first item in it has waited for the window or the group is full.
+ * If writing a group fails, each item is written again on its own so every caller learns whether
+ * its own item was written, and one bad item does not fail the others.
+ * A caller that stops waiting can {@link #withdraw} its item as long as the writer has not taken
+ * it yet, so giving up never leaves an item that is still written later.
+ * <p>
+ * The writer runs on a single background thread and must not be called concurrently with itself.
+ *
+ * @param <T> The type of the items
+ */
+public final class GroupCommitter<T> implements AutoCloseable {
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final BlockingQueue<Pending<T>> queue;
+    private final Consumer<List<T>> writer;
+    private final long windowNanos;
+    private final int maxGroupSize;
+    private final Thread flusher;
+
+    private volatile boolean closed;
+
+    /**
+     * @param name The name of the background thread
+     * @param window How long the first item of a group waits for others to join it
+     * @param maxGroupSize The most items written together
+     * @param capacity The most items waiting at once; submissions beyond that fail immediately
+     * @param writer Writes a group of items, atomically, throwing if none were written
+     */
+    public GroupCommitter(String name, Duration window, int maxGroupSize, int capacity, Consumer<List<T>> writer) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("Group size must be at least 1");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = writer;
+        this.windowNanos = window.toNanos();
+        this.maxGroupSize = maxGroupSize;
+        this.flusher = new Thread(this::run, name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues an item for the next group.
+     *
+     * @param item The item to write
+     * @return A future completed once the item is committed, or exceptionally with the reason it
+     * was not written, including when the queue is full or the committer is closed
+     */
+    public CompletableFuture<Void> submit(T item) {
+        Pending<T> pending = new Pending<>(item);
+        if (closed) {
+            pending.completeExceptionally(new IllegalStateException("Group committer is closed"));
+        } else if (!queue.offer(pending)) {
+            pending.completeExceptionally(new IllegalStateException("Too many writes waiting, try again shortly"));
+        } else if (closed) {
+            // close() may have drained the queue before this offer landed
+            reject(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Takes back an item whose caller stopped waiting for it.
+     *
+     * @param result The future returned by {@link #submit} for the item
+     * @return True if the item will not be written and its future was completed exceptionally,
+     * false if the writer has taken it already and its future tells how that ends
+     */
+    public boolean withdraw(CompletableFuture<Void> result) {
+        if (!(result instanceof Pending<?> pending) || !pending.claim()) {
+            return false;
+        }
+        queue.remove(pending);
+        pending.completeExceptionally(new CancellationException("Withdrawn before it was written"));
+        return true;
+    }
+
+    /**
+     * Stops accepting items and waits for the queued ones to be written. Items submitted while
+     * closing that the writer did not take are rejected, so no caller waits forever.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending<T>> stranded = new ArrayList<>();
+        queue.drainTo(stranded);
+        stranded.forEach(this::reject);
+    }
+
+    private void reject(Pending<T> pending) {
+        if (pending.claim()) {
+            queue.remove(pending);
+            pending.completeExceptionally(new IllegalStateException("Group committer is closed"));
+        }
+    }
+
+    private void run() {
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending<T> first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    write(collectGroup(first));
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+        }
+    }
+
+    private List<Pending<T>> collectGroup(Pending<T> first) throws InterruptedException {
+        List<Pending<T>> group = new ArrayList<>(maxGroupSize);
+        group.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < maxGroupSize) {
+            long remaining = deadline - System.nanoTime();
+            Pending<T> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                // take whatever else is already waiting without extending the window
+                queue.drainTo(group, maxGroupSize - group.size());
+                break;
+            }
+            group.add(next);
+        }
+        return group;
+    }
+
+    private void write(List<Pending<T>> group) {
+        // withdrawn items are skipped; the rest can no longer be withdrawn
+        group.removeIf(pending -> !pending.claim());
+        if (group.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(group.stream().map(Pending::item).toList());
+            group.forEach(pending -> pending.complete(null));
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).completeExceptionally(e);
+                return;
+            }
+            for (Pending<T> pending : group) {
+                try {
+                    writer.accept(List.of(pending.item()));
+                    pending.complete(null);
+                } catch (RuntimeException single) {
+                    pending.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued item and the future of its caller. Whoever claims it first, the writer or a
+     * withdrawing caller, decides its fate.
+     */
+    private static final class Pending<T> extends CompletableFuture<Void> {
+
+        private final T item;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Pending(T item) {
+            this.item = item;
+        }
+
+        private T item() {
+            return item;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import java.util.Locale;
+
+/**
+ * Canonical forms of the identifiers users log in with.
+ * Emails and usernames are compared case-insensitively and without surrounding whitespace,
+ * so {@code Bob@x.com} and {@code bob@x.com} are the same account.
+ */
+public final class Identifiers {
+
+    private Identifiers() {
+    }
+
+    /**
+     * @param identifier An email or username as typed by the user, may be null
+     * @return The trimmed, lower-cased identifier, or null
+     */
+    public static String normalize(String identifier) {
+        return identifier == null ? null : identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Usernames may not contain {@code @}, so its presence is enough to tell the two apart.
+     *
+     * @param identifier An email or username
+     * @return True if the identifier is an email address
+     */
+    public static boolean isEmail(String identifier) {
+        return identifier.indexOf('@') >= 0;
+    }
+}
@@ -1,27 +1,67 @@
 package com.paloma.paloma.javaServer.utilites;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
     private final Key key;
     private static final long ACCESS_EXPIRATION_TIME_MS = 1000 * 60 * 15; // 15 min
-    public static final long REFRESH_EXPIRATION_TIME_MS = 1000 * 60 * 60 * 24 * 7;
+    private static final long VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    /**
+     * Parsers are immutable and thread-safe, so one instance is shared by every request.
+     */
+    private final JwtParser parser;
+
+    /**
+     * Tokens whose signature and claims have already been checked, keyed by the SHA-256 digest
+     * of the compact token. Each entry expires at the token's own {@code exp} claim.
+     */
+    private final Cache<ByteBuffer, VerifiedToken> verifiedTokens;
 
     public JwtUtil(@Value("${jwt.secret}") String secret) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Publishes hit/miss/eviction counts of the verified token cache under the {@code jwt.verified} cache name.
+     *
+     * @param meterRegistry The registry provided by actuator
+     */
+    @Autowired(required = false)
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
     }
+
     public String generateAccessToken(UUID userId) {
         return Jwts.builder()
                 .setId(UUID.randomUUID().toString())
@@ -32,27 +72,82 @@ public class JwtUtil {
                 .compact();
     }
 
-    public  String generateRefreshToken(UUID userId) {
-        return Jwts.builder()
-                .setId(UUID.randomUUID().toString())
-                .setSubject(userId.toString())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + REFRESH_EXPIRATION_TIME_MS))
-                .signWith(key)
-                .compact();
+    public UUID validateTokenAndGetUserId(String token) throws JwtException {
+        return validateToken(token).userId();
     }
 
-    public UUID validateTokenAndGetUserId(String token) throws JwtException {
+    /**
+     * Validates a token and returns the claims the server relies on.
+     * A token that was already verified is answered from the cache until it expires,
+     * so repeated requests with the same token skip the HMAC check and claim parsing.
+     *
+     * @param token The compact JWT
+     * @return The verified token details
+     * @throws JwtException If the token is empty, malformed, tampered with or expired
+     */
+    public VerifiedToken validateToken(String token) throws JwtException {
         if (token == null || token.isBlank()) {
             throw new JwtException("Empty or null token");
         }
 
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return UUID.fromString(claims.getSubject());
+        ByteBuffer digest = ByteBuffer.wrap(TokenDigest.sha256(token));
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        VerifiedToken verified = new VerifiedToken(
+                UUID.fromString(claims.getSubject()),
+                claims.getId(),
+                claims.getExpiration());
+        // tokens without an expiry are still accepted but never cached
+        if (verified.expiration() != null) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Forgets every verified token, so each one is checked again on its next use.
+     */
+    public void evictVerifiedTokens() {
+        verifiedTokens.invalidateAll();
+    }
+
+    CacheStats verifiedTokenCacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    /**
+     * The parts of a verified token that callers need after validation.
+     *
+     * @param userId The subject of the token
+     * @param tokenId The {@code jti} claim, may be null for tokens not minted by this class
+     * @param expiration The {@code exp} claim, may be null
+     */
+    public record VerifiedToken(UUID userId, String tokenId, Date expiration) {
     }
-}
 
+    /**
+     * Expires each cache entry at the moment its token stops being valid.
+     */
+    private static final class UntilTokenExpiry implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            long remainingMs = value.expiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Position of the last row of a page in a list ordered by (position, id), handed to clients as
+ * an opaque URL-safe token. The next page seeks past it through the index instead of skipping
+ * rows with an offset, so it costs the same however deep it is, and rows inserted meanwhile
+ * do not shift what the client has already seen.
+ *
+ * @param position The ordering column of the last row, e.g. its date
+ * @param id       The id of the last row, breaking ties between equal positions
+ */
+public record KeysetCursor<K>(K position, UUID id) {
+
+    private static final char SEPARATOR = '~';
+
+    /**
+     * @return The token for this position; equal positions always give the same token
+     */
+    public String encode() {
+        String plain = position.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor A token returned by {@link #encode()}
+     * @param parser Parses the position, e.g. {@code LocalDate::parse}
+     * @return The decoded position
+     * @throws IllegalArgumentException If the token was not produced by {@link #encode()}
+     */
+    public static <K> KeysetCursor<K> decode(String cursor, Function<String, K> parser) {
+        String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = plain.lastIndexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new KeysetCursor<>(parser.apply(plain.substring(0, separator)),
+                    UUID.fromString(plain.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the SQL statements Hibernate runs on the current thread and times their execution.
+ * <p>
+ * A {@link Scope} is opened per unit of work, usually an HTTP request, with a budget of
+ * statements. Every statement is counted by its SQL text, so a statement that runs many times
+ * with different parameters shows up as repeated, which is what an N+1 loop over lazy
+ * associations looks like. An enforcing scope throws as soon as the budget is exceeded;
+ * otherwise the owner of the scope checks it on close.
+ * <p>
+ * Statements slower than the configured threshold are logged, optionally sampled, with their SQL
+ * and number of binds. Bound values are never logged since they can hold health data.
+ * Statements sent through {@code JdbcTemplate} bypass Hibernate and are not seen.
+ * <p>
+ * Per statement this costs a thread-local lookup, a map update and two clock reads.
+ */
+@Slf4j
+public final class QueryTracker {
+
+    private static final ThreadLocal<ThreadState> STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    private static volatile long slowQueryNanos = Long.MAX_VALUE;
+    private static volatile double slowQuerySampleRate = 1.0;
+
+    private QueryTracker() {
+    }
+
+    private static final class ThreadState {
+        private Scope scope;
+        private String sql;
+        private long executionStart;
+    }
+
+    /**
+     * @param threshold  Statements taking at least this long are logged
+     * @param sampleRate The fraction of slow statements logged, between 0 and 1
+     */
+    public static void configureSlowQueryLog(Duration threshold, double sampleRate) {
+        slowQueryNanos = threshold.toNanos();
+        slowQuerySampleRate = sampleRate;
+    }
+
+    /**
+     * Opens a scope on the current thread. A scope opened inside another one counts on its own
+     * until it is closed. A scope closed from another thread stops counting at once, and is
+     * dropped by the thread that opened it the next time that thread looks at its scope.
+     *
+     * @param name    What the scope covers, used in messages, e.g. {@code GET /insession/history/checkins}
+     * @param budget  The number of statements allowed
+     * @param enforce Throw {@link QueryBudgetExceededException} from the statement over budget
+     * @return The open scope
+     */
+    public static Scope open(String name, int budget, boolean enforce) {
+        ThreadState state = STATE.get();
+        Scope scope = new Scope(name, budget, enforce, state, current(state));
+        state.scope = scope;
+        return scope;
+    }
+
+    /**
+     * Drops the scopes closed from other threads off the top of the current thread's stack.
+     */
+    private static Scope current(ThreadState state) {
+        Scope scope = state.scope;
+        while (scope != null && scope.closed) {
+            scope = scope.parent;
+        }
+        state.scope = scope;
+        return scope;
+    }
+
+    /**
+     * Called before Hibernate prepares a statement.
+     */
+    public static void statementPrepared(String sql) {
+        ThreadState state = STATE.get();
+        state.sql = sql;
+        Scope scope = current(state);
+        if (scope != null) {
+            scope.record(sql);
+        }
+    }
+
+    /**
+     * Called when Hibernate starts executing a statement or a batch.
+     */
+    public static void executionStarted() {
+        STATE.get().executionStart = System.nanoTime();
+    }
+
+    /**
+     * Called when the execution started last on this thread has finished.
+     */
+    public static void executionFinished() {
+        ThreadState state = STATE.get();
+        long elapsed = System.nanoTime() - state.executionStart;
+        if (elapsed < slowQueryNanos || state.sql == null) {
+            return;
+        }
+        if (slowQuerySampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= slowQuerySampleRate) {
+            return;
+        }
+        Scope scope = current(state);
+        log.warn("Slow statement took {} ms in {}: {} [{} binds]", elapsed / 1_000_000,
+                scope == null ? "background work" : scope.name, state.sql, bindCount(state.sql));
+    }
+
+    static int bindCount(String sql) {
+        int binds = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                binds++;
+            }
+        }
+        return binds;
+    }
+
+    /**
+     * The statements run on a thread between {@link QueryTracker#open} and {@link #close()}.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+        private final int budget;
+        private final boolean enforce;
+        private final ThreadState owner;
+        private final Scope parent;
+        private final Map<String, Integer> executions = new HashMap<>();
+        private int statements;
+        private volatile boolean closed;
+
+        private Scope(String name, int budget, boolean enforce, ThreadState owner, Scope parent) {
+            this.name = name;
+            this.budget = budget;
+            this.enforce = enforce;
+            this.owner = owner;
+            this.parent = parent;
+        }
+
+        private void record(String sql) {
+            statements++;
+            executions.merge(sql, 1, Integer::sum);
+            if (enforce && statements > budget) {
+                throw new QueryBudgetExceededException(name + " ran more than " + budget + " statements: " + sql);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBudget() {
+            return budget;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public boolean isOverBudget() {
+            return statements > budget;
+        }
+
+        /**
+         * @param threshold The number of executions from which a statement counts as repeated
+         * @return The statements run at least {@code threshold} times, with their counts
+         */
+        public Map<String, Integer> getRepeatedStatements(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            executions.forEach((sql, count) -> {
+                if (count >= threshold) {
+                    repeated.put(sql, count);
+                }
+            });
+            return repeated;
+        }
+
+        /**
+         * Stops counting; may be called from any thread and more than once.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            ThreadState state = STATE.get();
+            if (state == owner) {
+                current(state);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A lock-free token bucket.
+ * Instead of a token count the bucket stores a single timestamp, the moment at which it would be
+ * completely full again, and each attempt moves that moment forward by one refill interval with
+ * a compare-and-set. This behaves exactly like a bucket of {@code capacity} tokens that regains
+ * one token every {@code refillInterval}, without a lock or an allocation per attempt.
+ */
+public final class TokenBucket {
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity The number of attempts allowed in a burst
+     * @param refillIntervalNanos The time in which one token is regained
+     * @param clock The time source in nanoseconds, normally {@link System#nanoTime()}
+     */
+    public TokenBucket(int capacity, long refillIntervalNanos, LongSupplier clock) {
+        if (capacity < 1 || refillIntervalNanos < 1) {
+            throw new IllegalArgumentException("Capacity and refill interval must be positive");
+        }
+        this.refillIntervalNanos = refillIntervalNanos;
+        this.burstNanos = refillIntervalNanos * (capacity - 1);
+        this.clock = clock;
+        this.fullAt = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Takes one token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public long tryConsume() {
+        long now = clock.getAsLong();
+        while (true) {
+            long current = fullAt.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + refillIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Fixed-size digests of opaque token strings.
+ * Used wherever a token has to be looked up or stored without keeping the token itself around.
+ */
+public final class TokenDigest {
+
+    public static final int SHA_256_LENGTH = 32;
+
+    private TokenDigest() {
+    }
+
+    /**
+     * Computes the SHA-256 digest of a token.
+     *
+     * @param token The token to digest
+     * @return The 32 byte digest
+     */
+    public static byte[] sha256(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM is required to ship SHA-256
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
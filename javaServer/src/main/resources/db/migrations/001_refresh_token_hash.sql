@@ -0,0 +1,14 @@
+-- Stores refresh tokens as SHA-256 digests instead of the full signed token.
+-- Run once against an existing database before deploying the version that maps RefreshAuth.tokenHash.
+-- SHA2() over the utf8mb4 column yields the same digest as TokenDigest.sha256, so existing tokens stay valid.
+
+ALTER TABLE refresh_auth ADD COLUMN token_hash BINARY(32) NULL;
+
+UPDATE refresh_auth SET token_hash = UNHEX(SHA2(token, 256));
+
+ALTER TABLE refresh_auth
+    MODIFY token_hash BINARY(32) NOT NULL,
+    ADD UNIQUE INDEX uk_refresh_auth_token_hash (token_hash);
+
+-- also drops the unique index on the old column
+ALTER TABLE refresh_auth DROP COLUMN token;
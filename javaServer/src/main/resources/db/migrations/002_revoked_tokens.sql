@@ -0,0 +1,9 @@
+-- Access tokens revoked on logout, kept only until the token would have expired.
+-- Loaded into memory at startup by TokenRevocationService; rows past expires_at are purged on a schedule.
+
+CREATE TABLE revoked_tokens (
+    token_id   VARCHAR(36) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (token_id),
+    INDEX idx_revoked_tokens_expires_at (expires_at)
+);
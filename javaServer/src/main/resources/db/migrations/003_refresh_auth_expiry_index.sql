@@ -0,0 +1,3 @@
+-- Lets the scheduled purge find expired refresh tokens by range instead of scanning the table.
+
+ALTER TABLE refresh_auth ADD INDEX idx_refresh_auth_expiry_date (expiry_date);
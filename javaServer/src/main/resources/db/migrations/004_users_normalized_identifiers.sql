@@ -0,0 +1,25 @@
+-- Adds lower-cased copies of username and email with unique indexes, so login is a single
+-- index lookup and registrations that differ only in case are rejected.
+-- The UPDATE fails on the unique indexes if existing accounts already collide; resolve those first:
+--   SELECT LOWER(TRIM(email)), COUNT(*) FROM users GROUP BY 1 HAVING COUNT(*) > 1;
+--   SELECT LOWER(TRIM(username)), COUNT(*) FROM users GROUP BY 1 HAVING COUNT(*) > 1;
+-- Usernames containing '@' can only log in with their email after this change:
+--   SELECT id, username FROM users WHERE username LIKE '%@%';
+
+ALTER TABLE users
+    ADD COLUMN username_normalized VARCHAR(100) NULL,
+    ADD COLUMN email_normalized VARCHAR(200) NULL;
+
+UPDATE users
+SET username_normalized = LOWER(TRIM(username)),
+    email_normalized = LOWER(TRIM(email));
+
+ALTER TABLE users
+    MODIFY username_normalized VARCHAR(100) NOT NULL,
+    MODIFY email_normalized VARCHAR(200) NOT NULL,
+    ADD UNIQUE INDEX uk_users_username_normalized (username_normalized),
+    ADD UNIQUE INDEX uk_users_email_normalized (email_normalized);
+
+-- Both login lookups should report type=const with the new index as key:
+--   EXPLAIN SELECT * FROM users WHERE email_normalized = 'bob@example.com';
+--   EXPLAIN SELECT * FROM users WHERE username_normalized = 'bob';
@@ -0,0 +1,22 @@
+-- Registration used to insert a new roles row per user. Keeps one row per role_type,
+-- points every user_roles row at it, deletes the rest and makes role_type unique.
+-- Run before deploying the version that loads roles through RoleCatalog.
+
+CREATE TEMPORARY TABLE role_keepers AS
+SELECT role_type, MIN(id) AS keep_id
+FROM roles
+GROUP BY role_type;
+
+UPDATE user_roles ur
+    JOIN roles r ON r.id = ur.role_id
+    JOIN role_keepers k ON k.role_type = r.role_type
+SET ur.role_id = k.keep_id
+WHERE ur.role_id <> k.keep_id;
+
+DELETE r FROM roles r
+    JOIN role_keepers k ON k.role_type = r.role_type
+WHERE r.id <> k.keep_id;
+
+DROP TEMPORARY TABLE role_keepers;
+
+ALTER TABLE roles ADD UNIQUE INDEX uk_roles_role_type (role_type);
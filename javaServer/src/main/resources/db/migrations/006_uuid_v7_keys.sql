@@ -0,0 +1,24 @@
+-- New rows get time-ordered version 7 UUIDs (UuidV7Generator). Ids are already stored as
+-- BINARY(16), so no column changes are needed; existing version 4 ids stay valid.
+-- daily_checkins and med_logs are the fastest growing tables and nothing references their ids,
+-- so their existing rows are re-keyed with v7 ids derived from created_at and the tables rebuilt,
+-- which leaves their clustered indexes in insertion order and densely packed.
+-- Tables whose ids are referenced by foreign keys or handed out to clients keep their ids.
+-- Run during a quiet period: the rebuild copies each table.
+
+UPDATE daily_checkins
+SET id = UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(created_at) * 1000)), 12, '0'),
+        '7', SUBSTR(HEX(RANDOM_BYTES(2)), 2, 3),
+        HEX((ASCII(RANDOM_BYTES(1)) & 0x3F) | 0x80),
+        HEX(RANDOM_BYTES(7))));
+
+UPDATE med_logs
+SET id = UNHEX(CONCAT(
+        LPAD(HEX(FLOOR(UNIX_TIMESTAMP(created_at) * 1000)), 12, '0'),
+        '7', SUBSTR(HEX(RANDOM_BYTES(2)), 2, 3),
+        HEX((ASCII(RANDOM_BYTES(1)) & 0x3F) | 0x80),
+        HEX(RANDOM_BYTES(7))));
+
+ALTER TABLE daily_checkins FORCE;
+ALTER TABLE med_logs FORCE;
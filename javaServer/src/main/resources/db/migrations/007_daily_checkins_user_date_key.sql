@@ -0,0 +1,19 @@
+-- Makes (user_id, date) the primary key of daily_checkins. InnoDB clusters rows by primary key,
+-- so a user's check-ins become contiguous and sorted by date, and reading the last N days is
+-- a short backward range scan. DailyCheckin maps the same key; id stays unique for paging.
+-- Keeps only the latest check-in of each user and day; check the duplicates first:
+--   SELECT user_id, date, COUNT(*) FROM daily_checkins GROUP BY user_id, date HAVING COUNT(*) > 1;
+
+DELETE d FROM daily_checkins d
+    JOIN daily_checkins newer ON newer.user_id = d.user_id AND newer.date = d.date
+        AND (newer.created_at > d.created_at OR (newer.created_at = d.created_at AND newer.id > d.id));
+
+ALTER TABLE daily_checkins
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (user_id, date),
+    ADD UNIQUE INDEX uk_daily_checkins_id (id);
+
+-- The separate index Hibernate created for the user_id foreign key is now redundant with the
+-- primary key and can be dropped once found with SHOW INDEX FROM daily_checkins.
+-- The score query should report key=PRIMARY and no filesort:
+--   EXPLAIN SELECT total_score FROM daily_checkins WHERE user_id = ? ORDER BY date DESC LIMIT 7;
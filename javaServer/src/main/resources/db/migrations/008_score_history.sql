@@ -0,0 +1,19 @@
+-- One row per user with running check-in score aggregates, updated in the same transaction
+-- as each check-in (see ScoreHistory). recent_scores holds the last 90 days, one byte per day
+-- in quarter points at index epoch_day % 90, 0xFF for days without a check-in.
+-- After applying this migration, call POST /admin/score-history/rebuild once to backfill the
+-- rows of users who checked in before; until then their trends are empty and their latest
+-- scores are read from daily_checkins. A user without a row who checks in first gets it filled
+-- from all their stored check-ins. Rebuild again if old instances kept taking check-ins for
+-- users that already had a row during a rolling deploy.
+
+CREATE TABLE score_history (
+    user_id       BINARY(16) NOT NULL,
+    score_sum     DOUBLE     NOT NULL,
+    checkin_count BIGINT     NOT NULL,
+    last_score    DOUBLE     NULL,
+    last_date     DATE       NULL,
+    recent_scores BINARY(90) NOT NULL,
+    PRIMARY KEY (user_id),
+    CONSTRAINT fk_score_history_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
@@ -0,0 +1,15 @@
+-- Allows one log per medication and day, so logging a dose twice is an upsert on
+-- (medication_id, date) instead of a second row. The key also serves lookups of a medication's
+-- logs by date.
+-- Keeps only the latest log of each medication and day; check the duplicates first:
+--   SELECT medication_id, date, COUNT(*) FROM med_logs GROUP BY medication_id, date HAVING COUNT(*) > 1;
+
+DELETE m FROM med_logs m
+    JOIN med_logs newer ON newer.medication_id = m.medication_id AND newer.date = m.date
+        AND (newer.created_at > m.created_at OR (newer.created_at = m.created_at AND newer.id > m.id));
+
+ALTER TABLE med_logs
+    ADD UNIQUE INDEX uk_med_logs_medication_date (medication_id, date);
+
+-- The separate index Hibernate created for the medication_id foreign key is now redundant with
+-- the unique key and can be dropped once found with SHOW INDEX FROM med_logs.
@@ -0,0 +1,61 @@
+-- Partitions daily_checkins and med_logs by month of date (RANGE COLUMNS). Queries with a date
+-- bound only read the partitions that can hold matching rows, and old months can be removed
+-- with DROP PARTITION instead of a long DELETE. MySQL keeps every index inside its partition.
+-- Everything before the first month goes to p_history and everything after the last one to
+-- pmax. PartitionMaintenanceService splits monthly partitions off pmax at startup and every
+-- night, and removes months past paloma.partitions.retention-months.
+--
+-- MySQL requires every unique key to contain the partitioning column, and it does not allow
+-- foreign keys on partitioned tables. The keys are widened by date below and the foreign keys
+-- Hibernate created (with generated names) are dropped. The application never relied on them:
+-- rows are only written for existing users and medications.
+
+-- daily_checkins: the primary key (user_id, date) from migration 007 already contains date
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+           WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'daily_checkins' LIMIT 1);
+SET @ddl = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE daily_checkins DROP FOREIGN KEY ', @fk));
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+ALTER TABLE daily_checkins
+    DROP INDEX uk_daily_checkins_id,
+    ADD UNIQUE INDEX uk_daily_checkins_id (id, date);
+
+ALTER TABLE daily_checkins
+    PARTITION BY RANGE COLUMNS (date) (
+        PARTITION p_history VALUES LESS THAN ('2026-11-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- med_logs: one foreign key each for user_id and medication_id
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+           WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'med_logs' LIMIT 1);
+SET @ddl = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE med_logs DROP FOREIGN KEY ', @fk));
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @fk = (SELECT CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS
+           WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'med_logs' LIMIT 1);
+SET @ddl = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE med_logs DROP FOREIGN KEY ', @fk));
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- uk_med_logs_medication_date from migration 009 already contains date
+ALTER TABLE med_logs
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, date),
+    ADD INDEX ix_med_logs_user_date (user_id, date);
+
+ALTER TABLE med_logs
+    PARTITION BY RANGE COLUMNS (date) (
+        PARTITION p_history VALUES LESS THAN ('2026-11-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- Check pruning once the monthly partitions exist. The partitions column should list only the
+-- months from the bound on, not p_history:
+--   EXPLAIN SELECT total_score FROM daily_checkins
+--       WHERE user_id = ? AND date >= CURDATE() - INTERVAL 6 DAY ORDER BY date DESC LIMIT 7;
@@ -0,0 +1,16 @@
+-- Indexes for the keyset-paginated history endpoints. Each page seeks to (user_id, date, id) of
+-- the last row it returned and reads the next rows in index order, so deep pages cost the same
+-- as the first one.
+--
+-- daily_checkins needs nothing: its clustered primary key (user_id, date) from migration 007
+-- already holds the rows of a user in date order.
+
+-- med_logs: widen (user_id, date) from migration 010 so the seek, the tie-break on id and the log
+-- columns are read from the index alone. Like every index of the table it is partition-local.
+ALTER TABLE med_logs
+    DROP INDEX ix_med_logs_user_date,
+    ADD INDEX ix_med_logs_user_date (user_id, date, id, medication_id, taken);
+
+-- alerts: seek on triggered_at; the reason is read from the row, once per returned alert
+ALTER TABLE alerts
+    ADD INDEX ix_alerts_user_triggered (user_id, triggered_at, id, contact_id, was_sent);
@@ -0,0 +1,15 @@
+-- Schemas generated by Hibernate 6 declare roles.role_type as enum('USER','TRUSTED_CONTACT'),
+-- which rejects the ADMIN row RoleCatalog seeds at startup. Stores the role name as text so
+-- new role types need no schema change. Run before deploying the version with RoleType.ADMIN.
+
+ALTER TABLE roles MODIFY role_type VARCHAR(32) NOT NULL;
+
+-- Nobody can register or be provisioned as an administrator. Once the application has started
+-- and seeded the ADMIN role, grant it to an existing user by username:
+--
+--   INSERT INTO user_roles (id, user_id, role_id, is_primary)
+--   SELECT UUID_TO_BIN(UUID(), 1), u.id, r.id, FALSE
+--   FROM users u JOIN roles r ON r.role_type = 'ADMIN'
+--   WHERE u.username_normalized = LOWER('<username>');
+--
+-- then restart the application, since role lookups are cached.
@@ -0,0 +1,79 @@
+package com.paloma.paloma.javaServer.caches;
+
+import com.paloma.paloma.javaServer.entities.Role;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.repositories.RoleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoleCatalogTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private RoleCatalog roleCatalog;
+    private Role userRole;
+    private Role trustedContactRole;
+
+    @BeforeEach
+    void setUp() {
+        roleCatalog = new RoleCatalog(roleRepository);
+        userRole = new Role(UUID.randomUUID(), RoleType.USER, null);
+        trustedContactRole = new Role(UUID.randomUUID(), RoleType.TRUSTED_CONTACT, null);
+    }
+
+    @Test
+    void load_ExistingRows_NoWrites() {
+        when(roleRepository.findByRoleType(RoleType.USER)).thenReturn(Optional.of(userRole));
+        when(roleRepository.findByRoleType(RoleType.TRUSTED_CONTACT)).thenReturn(Optional.of(trustedContactRole));
+
+        roleCatalog.load();
+
+        assertSame(userRole, roleCatalog.get(RoleType.USER));
+        assertSame(trustedContactRole, roleCatalog.get(RoleType.TRUSTED_CONTACT));
+        verify(roleRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void load_MissingRow_Seeded() {
+        when(roleRepository.findByRoleType(RoleType.USER)).thenReturn(Optional.of(userRole));
+        when(roleRepository.findByRoleType(RoleType.TRUSTED_CONTACT)).thenReturn(Optional.empty());
+        when(roleRepository.saveAndFlush(any(Role.class))).thenReturn(trustedContactRole);
+
+        roleCatalog.load();
+
+        assertSame(trustedContactRole, roleCatalog.get(RoleType.TRUSTED_CONTACT));
+        verify(roleRepository, times(1)).saveAndFlush(any(Role.class));
+    }
+
+    @Test
+    void load_SeedRace_ReadsWinningRow() {
+        when(roleRepository.findByRoleType(RoleType.USER)).thenReturn(Optional.of(userRole));
+        when(roleRepository.findByRoleType(RoleType.TRUSTED_CONTACT))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(trustedContactRole));
+        when(roleRepository.saveAndFlush(any(Role.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        roleCatalog.load();
+
+        assertSame(trustedContactRole, roleCatalog.get(RoleType.TRUSTED_CONTACT));
+    }
+
+    @Test
+    void get_BeforeLoad_Fails() {
+        assertThrows(IllegalStateException.class, () -> roleCatalog.get(RoleType.USER));
+    }
+}
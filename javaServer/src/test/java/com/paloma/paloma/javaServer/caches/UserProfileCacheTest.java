@@ -0,0 +1,84 @@
+package com.paloma.paloma.javaServer.caches;
+
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserProfileCache userProfileCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        userProfileCache = new UserProfileCache(userRepository, Duration.ofMinutes(10), 100);
+
+        testUser = new User();
+        testUser.setId(UUID.randomUUID());
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setFullName("Test User");
+    }
+
+    @Test
+    void find_LoadsOnceAndServesFromCache() {
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+
+        Optional<UserSnapshot> first = userProfileCache.find(testUser.getId());
+        Optional<UserSnapshot> second = userProfileCache.find(testUser.getId());
+
+        assertTrue(first.isPresent());
+        assertEquals("testuser", second.get().username());
+        assertEquals("Test User", second.get().fullName());
+        verify(userRepository, times(1)).findById(testUser.getId());
+    }
+
+    @Test
+    void find_UnknownUserIsNotCached() {
+        UUID unknownId = UUID.randomUUID();
+        when(userRepository.findById(unknownId)).thenReturn(Optional.empty());
+
+        assertTrue(userProfileCache.find(unknownId).isEmpty());
+        assertTrue(userProfileCache.find(unknownId).isEmpty());
+
+        verify(userRepository, times(2)).findById(unknownId);
+    }
+
+    @Test
+    void evict_NextReadSeesUpdatedProfile() {
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        userProfileCache.find(testUser.getId());
+
+        testUser.setEmail("new@example.com");
+        userProfileCache.evict(testUser.getId());
+
+        assertEquals("new@example.com", userProfileCache.find(testUser.getId()).get().email());
+        verify(userRepository, times(2)).findById(testUser.getId());
+    }
+
+    @Test
+    void evictAll_DropsEveryProfile() {
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        userProfileCache.find(testUser.getId());
+
+        userProfileCache.evictAll();
+        userProfileCache.find(testUser.getId());
+
+        verify(userRepository, times(2)).findById(testUser.getId());
+    }
+}
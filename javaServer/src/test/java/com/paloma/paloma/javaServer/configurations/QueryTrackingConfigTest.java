@@ -0,0 +1,78 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.paloma.paloma.javaServer.entities.TrustedContact;
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
+import com.paloma.paloma.javaServer.repositories.TrustedContactRepository;
+import com.paloma.paloma.javaServer.utilites.QueryTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs an N+1 loop over {@code TrustedContact.contactUser} against an embedded database and
+ * checks that the tracker sees every statement Hibernate sends.
+ */
+@DataJpaTest
+@Import(QueryTrackingConfig.class)
+class QueryTrackingConfigTest {
+
+    private static final int CONTACTS = 6;
+
+    @Autowired
+    private TrustedContactRepository trustedContactRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(user("bob"));
+        for (int i = 0; i < CONTACTS; i++) {
+            TrustedContact contact = new TrustedContact();
+            contact.setUser(user);
+            contact.setContactUser(entityManager.persist(user("contact" + i)));
+            entityManager.persist(contact);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void lazyLoadingInLoop_ReportedAsRepeatedStatement() {
+        try (QueryTracker.Scope scope = QueryTracker.open("test", 100, false)) {
+            List<TrustedContact> contacts = trustedContactRepository.findAll();
+            contacts.forEach(contact -> contact.getContactUser().getUsername());
+
+            // the contacts, then one users SELECT per contact
+            assertTrue(scope.getStatements() > CONTACTS);
+            Map<String, Integer> repeated = scope.getRepeatedStatements(CONTACTS);
+            assertTrue(repeated.containsValue(CONTACTS));
+        }
+    }
+
+    @Test
+    void lazyLoadingInLoop_EnforcedBudget_Fails() {
+        try (QueryTracker.Scope ignored = QueryTracker.open("test", 2, true)) {
+            List<TrustedContact> contacts = trustedContactRepository.findAll();
+
+            assertThrows(QueryBudgetExceededException.class,
+                    () -> contacts.forEach(contact -> contact.getContactUser().getUsername()));
+        }
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
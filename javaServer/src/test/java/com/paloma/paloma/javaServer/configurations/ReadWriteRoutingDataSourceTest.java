@@ -0,0 +1,134 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.paloma.paloma.javaServer.caches.RecentWriters;
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two embedded H2 databases stand in for the primary and a replica; each knows its own name,
+ * so a query shows which one a transaction was routed to.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private RecentWriters recentWriters;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        recentWriters = new RecentWriters(Duration.ofMinutes(1), 100);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, List.of(replica), recentWriters));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransaction_GoesToReplica() {
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void readWriteTransaction_GoesToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void withoutTransaction_GoesToPrimary() {
+        assertEquals("primary", currentDatabase());
+    }
+
+    @Test
+    void readAfterOwnWrite_StaysOnPrimary() {
+        UUID userId = authenticate();
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET db_name = db_name"));
+
+        assertTrue(recentWriters.wroteRecently(userId));
+        assertEquals("primary", readOnly.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void otherUsersReads_StillGoToReplica() {
+        authenticate();
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("UPDATE marker SET db_name = db_name"));
+
+        authenticate();
+
+        assertEquals("replica", readOnly.execute(status -> currentDatabase()));
+    }
+
+    @Test
+    void replicas_UsedRoundRobin() {
+        EmbeddedDatabase second = database("second-replica");
+        try {
+            JdbcTemplate routed = new JdbcTemplate(new LazyConnectionDataSourceProxy(
+                    new ReadWriteRoutingDataSource(primary, List.of(replica, second), recentWriters)));
+            TransactionTemplate reads = new TransactionTemplate(new DataSourceTransactionManager(routed.getDataSource()));
+            reads.setReadOnly(true);
+
+            List<String> routes = List.of(
+                    reads.execute(status -> routed.queryForObject("SELECT db_name FROM marker", String.class)),
+                    reads.execute(status -> routed.queryForObject("SELECT db_name FROM marker", String.class)));
+
+            assertEquals(List.of("replica", "second-replica"), routes);
+        } finally {
+            second.shutdown();
+        }
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT db_name FROM marker", String.class);
+    }
+
+    private static UUID authenticate() {
+        UUID userId = UUID.randomUUID();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, UUID.randomUUID().toString(), new Date()), null, null));
+        return userId;
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE marker (db_name VARCHAR(32))");
+        jdbcTemplate.update("INSERT INTO marker (db_name) VALUES (?)", name);
+        return database;
+    }
+}
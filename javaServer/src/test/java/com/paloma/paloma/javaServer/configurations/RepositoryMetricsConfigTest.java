@@ -0,0 +1,124 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every test calls a different repository method, since the registry lives as long as the
+ * cached context.
+ */
+@DataJpaTest
+@Import({RepositoryMetricsConfig.class, RepositoryMetricsConfigTest.Metrics.class})
+class RepositoryMetricsConfigTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        SimpleMeterRegistry meterRegistry(MeterFilter repositoryDistributionFilter) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            meterRegistry.config().meterFilter(repositoryDistributionFilter);
+            return meterRegistry;
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(user("bob"));
+        userRepository.save(user("alice"));
+    }
+
+    @Test
+    void repositoryCall_RecordsRowsTaggedByRepositoryAndMethod() {
+        userRepository.findAll();
+
+        DistributionSummary rows = meterRegistry.get(RepositoryMetricsConfig.ROWS)
+                .tag("repository", "UserRepository")
+                .tag("method", "findAll")
+                .summary();
+        assertEquals(1, rows.count());
+        assertEquals(2, rows.totalAmount());
+        assertEquals(3, rows.takeSnapshot().percentileValues().length);
+        assertTrue(rows.takeSnapshot().histogramCounts().length > 0);
+    }
+
+    @Test
+    void repositoryCall_OptionalResult_CountsZeroOrOneRow() {
+        userRepository.findById(UUID.randomUUID());
+
+        DistributionSummary rows = meterRegistry.get(RepositoryMetricsConfig.ROWS)
+                .tag("method", "findById")
+                .summary();
+        assertEquals(1, rows.count());
+        assertEquals(0, rows.totalAmount());
+    }
+
+    @Test
+    void repositoryCall_Throws_CountsError() {
+        assertThrows(RuntimeException.class, () -> userRepository.existsById(null));
+
+        assertEquals(1, meterRegistry.get(RepositoryMetricsConfig.ERRORS)
+                .tag("repository", "UserRepository")
+                .tag("method", "existsById")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void invocationTimer_PublishesPercentilesAndHistogram() {
+        Timer timer = meterRegistry.timer(RepositoryMetricsConfig.INVOCATIONS,
+                "repository", "UserRepository", "method", "findAll");
+        timer.record(Duration.ofMillis(3));
+
+        assertEquals(3, timer.takeSnapshot().percentileValues().length);
+        assertTrue(timer.takeSnapshot().histogramCounts().length > 0);
+    }
+
+    @Test
+    void rows_CountsQueryResultShapes() throws NoSuchMethodException {
+        Method query = Object.class.getMethod("toString");
+        Method command = Runnable.class.getMethod("run");
+
+        assertEquals(2, RepositoryMetricsInterceptor.rows(query, List.of(1, 2)));
+        assertEquals(3, RepositoryMetricsInterceptor.rows(query, new PageImpl<>(List.of(1, 2, 3))));
+        assertEquals(1, RepositoryMetricsInterceptor.rows(query, Optional.of("x")));
+        assertEquals(1, RepositoryMetricsInterceptor.rows(query, user("bob")));
+        assertEquals(0, RepositoryMetricsInterceptor.rows(query, null));
+        assertEquals(-1, RepositoryMetricsInterceptor.rows(query, 42L));
+        assertEquals(-1, RepositoryMetricsInterceptor.rows(query, Stream.of(1)));
+        assertEquals(-1, RepositoryMetricsInterceptor.rows(command, null));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
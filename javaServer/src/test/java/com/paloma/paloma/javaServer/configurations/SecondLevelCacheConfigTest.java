@@ -0,0 +1,200 @@
+package com.paloma.paloma.javaServer.configurations;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.paloma.paloma.javaServer.entities.AlertSensitivity;
+import com.paloma.paloma.javaServer.entities.Medication;
+import com.paloma.paloma.javaServer.entities.Role;
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.entities.UserRole;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.entities.enums.SensitivityLevel;
+import com.paloma.paloma.javaServer.repositories.AlertSensitivityRepository;
+import com.paloma.paloma.javaServer.repositories.MedicationRepository;
+import com.paloma.paloma.javaServer.repositories.RoleRepository;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import com.paloma.paloma.javaServer.repositories.UserRoleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.CacheManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the cached repositories against an embedded database. Every step uses its own
+ * transaction, the way requests do, so reads after a write go through the second-level cache.
+ */
+@DataJpaTest
+@Import(SecondLevelCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheConfigTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRoleRepository userRoleRepository;
+
+    @Autowired
+    private AlertSensitivityRepository alertSensitivityRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User newUser = new User();
+        newUser.setUsername("bob");
+        newUser.setEmail("bob@example.com");
+        user = userRepository.save(newUser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRoleRepository.deleteAll();
+        alertSensitivityRepository.deleteAll();
+        medicationRepository.deleteAll();
+        roleRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void everyRegionIsBounded() {
+        for (String region : List.of(SecondLevelCacheConfig.ROLES, SecondLevelCacheConfig.USER_ROLES,
+                SecondLevelCacheConfig.ALERT_SENSITIVITY, SecondLevelCacheConfig.MEDICATIONS)) {
+            CaffeineConfiguration<?, ?> configuration = hibernateCacheManager.getCache(region)
+                    .getConfiguration(CaffeineConfiguration.class);
+            assertTrue(configuration.getMaximumSize().isPresent(), region);
+        }
+        assertFalse(entityManagerFactory.getCache().contains(User.class, user.getId()));
+    }
+
+    @Test
+    void userRoles_RepeatedRead_ServedFromCache() {
+        Role role = roleRepository.save(new Role(null, RoleType.USER, null));
+        userRoleRepository.save(new UserRole(null, user, role, true));
+        nextMillisecond();
+        roleTypes();
+        nextMillisecond();
+        statistics.clear();
+
+        assertEquals(List.of(RoleType.USER), roleTypes());
+
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userRoles_AfterRoleChanges_ReadCurrentRows() {
+        Role userRole = roleRepository.save(new Role(null, RoleType.USER, null));
+        Role contactRole = roleRepository.save(new Role(null, RoleType.TRUSTED_CONTACT, null));
+        userRoleRepository.save(new UserRole(null, user, userRole, true));
+        assertEquals(List.of(RoleType.USER), roleTypes());
+
+        UserRole added = userRoleRepository.save(new UserRole(null, user, contactRole, false));
+        assertEquals(2, roleTypes().size());
+
+        userRoleRepository.delete(added);
+        assertEquals(List.of(RoleType.USER), roleTypes());
+    }
+
+    @Test
+    void alertSensitivity_AfterUpdate_ReadsNewLevel() {
+        alertSensitivityRepository.save(new AlertSensitivity(null, user, SensitivityLevel.LOW));
+        assertEquals(SensitivityLevel.LOW, sensitivity());
+
+        transaction.executeWithoutResult(status -> {
+            AlertSensitivity alertSensitivity = alertSensitivityRepository.findByUserId(user.getId()).orElseThrow();
+            alertSensitivity.setSensitivityLevel(SensitivityLevel.HIGH);
+            alertSensitivityRepository.save(alertSensitivity);
+        });
+
+        nextMillisecond();
+        assertEquals(SensitivityLevel.HIGH, sensitivity());
+        nextMillisecond();
+        statistics.clear();
+
+        assertEquals(SensitivityLevel.HIGH, sensitivity());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void medication_AfterRename_FoundOnlyByNewName() {
+        Medication medication = new Medication();
+        medication.setUser(user);
+        medication.setName("Aspirin");
+        medication.setDosage("100mg");
+        medication.setDailySchedule("morning");
+        medication.setIsActive(true);
+        medication.setCreatedAt(LocalDateTime.now());
+        medicationRepository.save(medication);
+        assertTrue(medicationRepository.findByNameAndUserId("Aspirin", user.getId()).isPresent());
+
+        transaction.executeWithoutResult(status -> {
+            Medication loaded = medicationRepository.findByNameAndUserId("Aspirin", user.getId()).orElseThrow();
+            loaded.setName("Ibuprofen");
+            loaded.setDosage("200mg");
+            medicationRepository.save(loaded);
+        });
+
+        assertTrue(medicationRepository.findByNameAndUserId("Aspirin", user.getId()).isEmpty());
+        Optional<Medication> renamed = medicationRepository.findByNameAndUserId("Ibuprofen", user.getId());
+        assertTrue(renamed.isPresent());
+        assertEquals("200mg", renamed.get().getDosage());
+    }
+
+    /**
+     * Cached entries written in the same millisecond as a transaction starts are not trusted
+     * by that transaction, so reads that must hit the cache start on the next one.
+     */
+    private static void nextMillisecond() {
+        long now = System.currentTimeMillis();
+        while (System.currentTimeMillis() == now) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private List<RoleType> roleTypes() {
+        return transaction.execute(status -> userRoleRepository.findAllByUser(user).stream()
+                .map(ur -> ur.getRole().getRoleType())
+                .toList());
+    }
+
+    private SensitivityLevel sensitivity() {
+        return transaction.execute(status ->
+                alertSensitivityRepository.findByUserId(user.getId()).orElseThrow().getSensitivityLevel());
+    }
+}
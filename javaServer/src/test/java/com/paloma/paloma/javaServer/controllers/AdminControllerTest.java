@@ -0,0 +1,132 @@
+package com.paloma.paloma.javaServer.controllers;
+
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import com.paloma.paloma.javaServer.services.BulkProvisioningService;
+import com.paloma.paloma.javaServer.services.RoleManagementService;
+import com.paloma.paloma.javaServer.services.ScoreHistoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdminControllerTest {
+
+    @Mock
+    private BulkProvisioningService bulkProvisioningService;
+
+    @Mock
+    private RoleManagementService roleManagementService;
+
+    @Mock
+    private ScoreHistoryService scoreHistoryService;
+
+    @InjectMocks
+    private AdminController adminController;
+
+    private MockMvc mockMvc;
+    private UUID testUserId;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(adminController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
+        testUserId = UUID.randomUUID();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(testUserId, UUID.randomUUID().toString(), new Date(System.currentTimeMillis() + 60_000)),
+                null, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBulkProvisionRequiresAdmin() throws Exception {
+        when(roleManagementService.userHasRole(testUserId, RoleType.ADMIN)).thenReturn(false);
+
+        mockMvc.perform(post("/admin/users/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bulkProvisioningService);
+    }
+
+    @Test
+    void testBulkProvisionWithoutToken() throws Exception {
+        SecurityContextHolder.clearContext();
+
+        mockMvc.perform(post("/admin/users/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testBulkProvisionCsvStreamsResults() throws Exception {
+        when(roleManagementService.userHasRole(testUserId, RoleType.ADMIN)).thenReturn(true);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("{\"line\":2,\"status\":\"created\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bulkProvisioningService).provision(any(), eq(BulkProvisioningService.Format.CSV), any());
+
+        MvcResult result = mockMvc.perform(post("/admin/users/bulk")
+                        .contentType(AdminController.TEXT_CSV_VALUE)
+                        .content("username,email,password\nann,ann@clinic.org,secret\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"line\":2,\"status\":\"created\"}\n"));
+    }
+
+    @Test
+    void testRebuildScoreHistory() throws Exception {
+        when(roleManagementService.userHasRole(testUserId, RoleType.ADMIN)).thenReturn(true);
+        when(scoreHistoryService.rebuildAll()).thenReturn(3);
+
+        mockMvc.perform(post("/admin/score-history/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.usersRebuilt").value(3));
+    }
+
+    @Test
+    void testRebuildScoreHistoryRequiresAdmin() throws Exception {
+        when(roleManagementService.userHasRole(testUserId, RoleType.ADMIN)).thenReturn(false);
+
+        mockMvc.perform(post("/admin/score-history/rebuild"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(scoreHistoryService);
+    }
+}
@@ -10,8 +10,11 @@ import com.paloma.paloma.javaServer.dataTransferObjects.responses.RegisterRespon
 import com.paloma.paloma.javaServer.entities.User;
 import com.paloma.paloma.javaServer.entities.enums.RoleType;
 import com.paloma.paloma.javaServer.exceptions.AuthenticationException;
+import com.paloma.paloma.javaServer.exceptions.LoginThrottledException;
+import com.paloma.paloma.javaServer.exceptions.PasswordHashingUnavailableException;
 import com.paloma.paloma.javaServer.exceptions.UserException;
 import com.paloma.paloma.javaServer.repositories.AuthCredRepository;
+import com.paloma.paloma.javaServer.services.LoginThrottleService;
 import com.paloma.paloma.javaServer.services.RefreshService;
 import com.paloma.paloma.javaServer.services.UserService;
 import com.paloma.paloma.javaServer.utilites.JwtUtil;
@@ -24,6 +27,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -35,6 +39,7 @@ import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -57,6 +62,9 @@ public class AuthControllerTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private LoginThrottleService loginThrottleService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -128,7 +136,7 @@ public class AuthControllerTest {
 
     @Test
     void testLoginSuccess() throws Exception {
-        LoginResponse expectedResponse = new LoginResponse("access-token", "Successfully logged in");
+        LoginResponse expectedResponse = new LoginResponse("access-token", "Successfully logged in", "refresh-token");
         when(userService.login(any(LoginRequest.class))).thenReturn(expectedResponse);
 
         mockMvc.perform(post("/auth/login")
@@ -136,6 +144,7 @@ public class AuthControllerTest {
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("access-token"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh-token"))
                 .andExpect(jsonPath("$.message").value("Successfully logged in"));
 
         verify(userService).login(any(LoginRequest.class));
@@ -156,6 +165,45 @@ public class AuthControllerTest {
         verify(userService).login(any(LoginRequest.class));
     }
 
+    @Test
+    void testLoginHashingQueueFull() throws Exception {
+        when(userService.login(any(LoginRequest.class)))
+                .thenThrow(new PasswordHashingUnavailableException("Too many password operations in progress, try again shortly"));
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Too many password operations in progress, try again shortly"));
+    }
+
+    @Test
+    void testLoginThrottled() throws Exception {
+        doThrow(new LoginThrottledException("Too many login attempts, try again later", 12))
+                .when(loginThrottleService).checkAttempt(eq("testuser"), anyString());
+
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.message").value("Too many login attempts, try again later"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testRegisterHashingQueueFull() throws Exception {
+        when(userService.register(any(RegisterRequest.class)))
+                .thenThrow(new PasswordHashingUnavailableException("Too many password operations in progress, try again shortly"));
+
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Too many password operations in progress, try again shortly"));
+    }
 
 
     // Unit tests for direct controller method calls
@@ -174,16 +222,21 @@ public class AuthControllerTest {
 
     @Test
     void testLoginDirectCall() {
-        LoginResponse expectedResponse = new LoginResponse("access-token", "Successfully logged in");
+        LoginResponse expectedResponse = new LoginResponse("access-token", "Successfully logged in", "refresh-token");
         when(userService.login(any(LoginRequest.class))).thenReturn(expectedResponse);
 
-        ResponseEntity<?> response = authController.login(loginRequest);
+        MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("203.0.113.7");
+
+        ResponseEntity<?> response = authController.login(loginRequest, httpRequest);
 
         assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
         JwtResponse jwtResponse = (JwtResponse) response.getBody();
         assertEquals("access-token", jwtResponse.getToken());
         assertEquals("Successfully logged in", jwtResponse.getMessage());
+        assertEquals("refresh-token", jwtResponse.getRefreshToken());
         verify(userService).login(loginRequest);
+        verify(loginThrottleService).checkAttempt("testuser", "203.0.113.7");
     }
 }
\ No newline at end of file
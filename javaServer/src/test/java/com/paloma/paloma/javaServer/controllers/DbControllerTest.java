@@ -1,5 +1,7 @@
 package com.paloma.paloma.javaServer.controllers;
 
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.ClearDatabaseResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.TableClearResult;
 import com.paloma.paloma.javaServer.services.DbClearService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,26 +40,45 @@ class DbControllerTest {
     @Test
     void testClearAllDataSuccess() throws Exception {
         // Test successful database clearing
-        doNothing().when(dbClearService).clearAllData();
+        when(dbClearService.clearAllData(DbClearService.Mode.DELETE)).thenReturn(new ClearDatabaseResponse(true,
+                "Database cleared successfully", "DELETE", 12, List.of(new TableClearResult("users", 3, 1))));
+
+        mockMvc.perform(delete("/db")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Database cleared successfully"))
+                .andExpect(jsonPath("$.elapsedMillis").value(12))
+                .andExpect(jsonPath("$.tables[0].table").value("users"))
+                .andExpect(jsonPath("$.tables[0].rows").value(3));
+
+        verify(dbClearService, times(1)).clearAllData(DbClearService.Mode.DELETE);
+    }
+
+    @Test
+    void testClearAllDataTruncateMode() throws Exception {
+        when(dbClearService.clearAllData(DbClearService.Mode.TRUNCATE)).thenReturn(new ClearDatabaseResponse(true,
+                "Database cleared successfully", "TRUNCATE", 40, List.of()));
 
         mockMvc.perform(delete("/db")
+                .param("mode", "TRUNCATE")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Database cleared successfully"));
+                .andExpect(jsonPath("$.mode").value("TRUNCATE"));
 
-        verify(dbClearService, times(1)).clearAllData();
+        verify(dbClearService, times(1)).clearAllData(DbClearService.Mode.TRUNCATE);
     }
 
     @Test
     void testClearAllDataFailure() throws Exception {
         // Test database clearing failure
-        doThrow(new RuntimeException("Test exception")).when(dbClearService).clearAllData();
+        doThrow(new RuntimeException("Test exception")).when(dbClearService).clearAllData(DbClearService.Mode.DELETE);
 
         mockMvc.perform(delete("/db")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError())
-                .andExpect(content().string("Failed to clear database: Test exception"));
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Failed to clear database: Test exception"));
 
-        verify(dbClearService, times(1)).clearAllData();
+        verify(dbClearService, times(1)).clearAllData(DbClearService.Mode.DELETE);
     }
-}
\ No newline at end of file
+}
@@ -5,17 +5,22 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.*;
 import com.paloma.paloma.javaServer.dataTransferObjects.responses.*;
 import com.paloma.paloma.javaServer.entities.enums.SensitivityLevel;
-import com.paloma.paloma.javaServer.entities.RefreshAuth;
 import com.paloma.paloma.javaServer.entities.User;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import com.paloma.paloma.javaServer.exceptions.AuthenticationException;
-import com.paloma.paloma.javaServer.exceptions.UnauthorizedException;
+import com.paloma.paloma.javaServer.exceptions.UserException;
+import com.paloma.paloma.javaServer.filters.QueryBudgetInterceptor;
+import jakarta.persistence.EntityNotFoundException;
+import com.paloma.paloma.javaServer.principals.AuthenticatedUser;
+import com.paloma.paloma.javaServer.services.HistoryService;
 import com.paloma.paloma.javaServer.services.RefreshService;
+import com.paloma.paloma.javaServer.services.TokenRevocationService;
 import com.paloma.paloma.javaServer.services.UserService;
-import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import com.paloma.paloma.javaServer.utilites.QueryTracker;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,10 +28,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -44,10 +54,13 @@ public class InSessionControllerTest {
     private RefreshService refreshService;
 
     @Mock
-    private JwtUtil jwtUtil;
+    private UserService userService;
 
     @Mock
-    private UserService userService;
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private HistoryService historyService;
 
     @InjectMocks
     private InSessionController inSessionController;
@@ -58,16 +71,22 @@ public class InSessionControllerTest {
     private String validToken;
     private UUID testUserId;
     private String authHeader;
+    private String testTokenId;
+    private Date testTokenExpiration;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(inSessionController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(inSessionController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .build();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
 
         testUserId = UUID.randomUUID();
         validToken = "valid-token";
         authHeader = "Bearer " + validToken;
+        testTokenId = UUID.randomUUID().toString();
+        testTokenExpiration = new Date(System.currentTimeMillis() + 15 * 60 * 1000);
 
         testUser = new User();
         testUser.setId(testUserId);
@@ -75,46 +94,73 @@ public class InSessionControllerTest {
         testUser.setEmail("test@example.com");
         testUser.setFullName("Test User");
         testUser.setCreatedAt(LocalDateTime.now());
+
+        // JwtAuthFilter resolves the principal before the controller runs
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(new AuthenticatedUser(testUserId, testTokenId, testTokenExpiration), null, null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
     void testRefreshTokenSuccess() throws Exception {
-        RefreshAuth refreshAuth = new RefreshAuth();
-        refreshAuth.setToken("refresh-token");
-        refreshAuth.setUser(testUser);
+        when(refreshService.refreshAccessToken(testUserId, "refresh-token"))
+                .thenReturn(Optional.of(new JwtResponse("new-access-token", "Successfully refreshed token", "rotated-token")));
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(refreshService.findByUserID(testUserId)).thenReturn(Optional.of(refreshAuth));
-        when(refreshService.validate("refresh-token")).thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateAccessToken(testUserId)).thenReturn("new-access-token");
+        mockMvc.perform(post("/insession/refresh")
+                        .header("Authorization", authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh-token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new-access-token"))
+                .andExpect(jsonPath("$.refreshToken").value("rotated-token"));
+
+        verify(refreshService).refreshAccessToken(testUserId, "refresh-token");
+        verifyNoMoreInteractions(refreshService);
+    }
+
+    @Test
+    void testRefreshTokenExpired() throws Exception {
+        when(refreshService.refreshAccessToken(testUserId, "refresh-token")).thenReturn(Optional.empty());
 
+        mockMvc.perform(post("/insession/refresh")
+                        .header("Authorization", authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh-token"))))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string(containsString("Invalid refresh token")));
+    }
+
+    @Test
+    void testRefreshTokenMissingRefreshToken() throws Exception {
         mockMvc.perform(post("/insession/refresh")
                         .header("Authorization", authHeader))
-                .andExpect(status().isOk())
-                .andExpect(content().string(containsString("new-access-token")));
+                .andExpect(status().isBadRequest());
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(refreshService).findByUserID(testUserId);
-        verify(refreshService).validate("refresh-token");
+        verifyNoInteractions(refreshService);
     }
 
     @Test
     void testRefreshTokenInvalidToken() throws Exception {
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenThrow(new UnauthorizedException("Invalid token"));
+        // the filter leaves the context empty when the token is invalid
+        SecurityContextHolder.clearContext();
 
         mockMvc.perform(post("/insession/refresh")
-                        .header("Authorization", authHeader))
+                        .header("Authorization", authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshRequest("refresh-token"))))
                 .andExpect(status().isUnauthorized())
                 .andExpect(content().string(containsString("Invalid token")));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
         verifyNoInteractions(refreshService);
     }
 
     @Test
     void testLogout() throws Exception {
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         doNothing().when(refreshService).revokeTokens(testUser);
 
         mockMvc.perform(post("/insession/logout")
@@ -122,16 +168,15 @@ public class InSessionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Successfully logged out and revoked all refresh tokens"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(refreshService).revokeTokens(testUser);
+        verify(tokenRevocationService).revoke(testTokenId, testTokenExpiration);
     }
 
     @Test
     void testUpdateEmail() throws Exception {
         UpdateEmailRequest updateEmailRequest = new UpdateEmailRequest("newemail@example.com");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
         when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
         doNothing().when(userService).updateEmail(testUser, "newemail@example.com");
 
@@ -142,17 +187,29 @@ public class InSessionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Successfully updated email"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
         verify(userService).getUserById(testUserId);
         verify(userService).updateEmail(testUser, "newemail@example.com");
     }
 
+    @Test
+    void testUpdateEmailInvalid() throws Exception {
+        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        doThrow(new UserException("Invalid email address: newemail"))
+                .when(userService).updateEmail(testUser, "newemail");
+
+        mockMvc.perform(put("/insession/update/email")
+                        .header("Authorization", authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateEmailRequest("newemail"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid email address: newemail"));
+    }
+
     @Test
     void testUpdatePassword() throws Exception {
         UpdatePasswordRequest updatePasswordRequest = new UpdatePasswordRequest("newpassword", "oldpassword");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         doNothing().when(userService).updatePassword(testUser, "oldpassword", "newpassword");
 
         mockMvc.perform(put("/insession/update/password")
@@ -162,8 +219,7 @@ public class InSessionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Successfully updated password"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).updatePassword(testUser, "oldpassword", "newpassword");
     }
 
@@ -171,7 +227,6 @@ public class InSessionControllerTest {
     void testUpdateUsername() throws Exception {
         UpdateUsernameRequest updateUsernameRequest = new UpdateUsernameRequest("newusername");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
         when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
         doNothing().when(userService).updateUsername(testUser, "newusername");
 
@@ -182,11 +237,24 @@ public class InSessionControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Successfully updated username"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
         verify(userService).getUserById(testUserId);
         verify(userService).updateUsername(testUser, "newusername");
     }
 
+    @Test
+    void testUpdateUsernameTaken() throws Exception {
+        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        doThrow(new UserException("There is already an account with the username: taken"))
+                .when(userService).updateUsername(testUser, "taken");
+
+        mockMvc.perform(put("/insession/update/username")
+                        .header("Authorization", authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUsernameRequest("taken"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("There is already an account with the username: taken"));
+    }
+
 
     @Test
     void testAddContactSuccess() throws Exception {
@@ -196,8 +264,7 @@ public class InSessionControllerTest {
         AddContactResponse successResponse = new AddContactResponse(
                 true, "Contact added successfully", true);
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addContact(eq(testUser), eq("contact@example.com"), 
                 eq("Please help me if I need support")))
                 .thenReturn(successResponse);
@@ -210,8 +277,7 @@ public class InSessionControllerTest {
                 .andExpect(content().string(containsString("Contact added successfully")))
                 .andExpect(content().string(containsString("true")));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addContact(eq(testUser), eq("contact@example.com"), 
                 eq("Please help me if I need support"));
     }
@@ -224,8 +290,7 @@ public class InSessionControllerTest {
         AddContactResponse successResponse = new AddContactResponse(
                 true, "Contact added and invitation email sent", false, true);
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addContact(eq(testUser), eq("newcontact@example.com"), 
                 eq("Please help me if I need support")))
                 .thenReturn(successResponse);
@@ -238,8 +303,7 @@ public class InSessionControllerTest {
                 .andExpect(content().string(containsString("Contact added and invitation email sent")))
                 .andExpect(content().string(containsString("true")));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addContact(eq(testUser), eq("newcontact@example.com"), 
                 eq("Please help me if I need support"));
     }
@@ -252,8 +316,7 @@ public class InSessionControllerTest {
         AddContactResponse failureResponse = new AddContactResponse(
                 false, "Failed to add contact: Database error", false);
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addContact(eq(testUser), eq("contact@example.com"), 
                 eq("Please help me if I need support")))
                 .thenReturn(failureResponse);
@@ -266,8 +329,7 @@ public class InSessionControllerTest {
                 .andExpect(content().string(containsString("Failed to add contact: Database error")))
                 .andExpect(content().string(containsString("false")));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addContact(eq(testUser), eq("contact@example.com"), 
                 eq("Please help me if I need support"));
     }
@@ -280,8 +342,7 @@ public class InSessionControllerTest {
         RemoveContactResponse successResponse = new RemoveContactResponse(
                 true, "Contact removed successfully");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.removeContact(eq(testUser), eq("contact@example.com")))
                 .thenReturn(successResponse);
 
@@ -293,8 +354,7 @@ public class InSessionControllerTest {
                 .andExpect(content().string(containsString("Contact removed successfully")))
                 .andExpect(content().string(containsString("true")));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).removeContact(eq(testUser), eq("contact@example.com"));
     }
     
@@ -306,8 +366,7 @@ public class InSessionControllerTest {
         RemoveContactResponse failureResponse = new RemoveContactResponse(
                 false, "Contact not found");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.removeContact(eq(testUser), eq("nonexistent@example.com")))
                 .thenReturn(failureResponse);
 
@@ -319,29 +378,27 @@ public class InSessionControllerTest {
                 .andExpect(content().string(containsString("Contact not found")))
                 .andExpect(content().string(containsString("false")));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).removeContact(eq(testUser), eq("nonexistent@example.com"));
     }
 
     @Test
     void testInvalidToken() throws Exception {
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenThrow(new UnauthorizedException("Invalid token"));
+        // the filter leaves the context empty when the token is invalid
+        SecurityContextHolder.clearContext();
 
         mockMvc.perform(put("/insession/update/email")
                         .header("Authorization", authHeader)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(new UpdateEmailRequest("newemail@example.com"))))
                 .andExpect(status().isUnauthorized())
-                .andExpect(content().string("Invalid token"));
+                .andExpect(content().string("Authorization header missing or malformed"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
         verifyNoInteractions(userService);
     }
 
     @Test
     void testUserNotFound() throws Exception {
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
         when(userService.getUserById(testUserId)).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/insession/update/email")
@@ -351,16 +408,30 @@ public class InSessionControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("User not found"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
         verify(userService).getUserById(testUserId);
     }
 
+    @Test
+    void testUserReferenceNotFound() throws Exception {
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(userService.getOverallScores(testUser, 7))
+                .thenThrow(new EntityNotFoundException("Unable to find User with id " + testUserId));
+
+        mockMvc.perform(post("/insession/daily/checkin/getOverallScores")
+                        .header("Authorization", authHeader)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GetOverallScoresRequest(7))))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("User not found"));
+
+        verify(userService, never()).getUserById(any());
+    }
+
     @Test
     void testUpdatePasswordInvalidOldPassword() throws Exception {
         UpdatePasswordRequest updatePasswordRequest = new UpdatePasswordRequest("newpassword", "wrongpassword");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         doThrow(new AuthenticationException("Invalid password"))
                 .when(userService).updatePassword(testUser, "wrongpassword", "newpassword");
 
@@ -371,8 +442,7 @@ public class InSessionControllerTest {
                 .andExpect(status().isUnauthorized())
                 .andExpect(content().string("Invalid access token"));  // The controller returns "Invalid access token" for all exceptions
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).updatePassword(testUser, "wrongpassword", "newpassword");
     }
     
@@ -381,8 +451,7 @@ public class InSessionControllerTest {
         DailyCheckinRequest dailyCheckinRequest = new DailyCheckinRequest(8, 7, 6, 2, "Feeling good today");
         DailyCheckinResponse successResponse = new DailyCheckinResponse(true, "Daily checkin recorded successfully");
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.dailyCheckin(eq(testUser), eq(8), eq(7), eq(6), eq(2), eq("Feeling good today")))
                 .thenReturn(successResponse);
         mockMvc.perform(post("/insession/daily/checkin")
@@ -393,8 +462,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Daily checkin recorded successfully"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).dailyCheckin(testUser, 8, 7, 6, 2, "Feeling good today");
     }
     
@@ -403,8 +471,7 @@ public class InSessionControllerTest {
         DailyCheckinRequest dailyCheckinRequest = new DailyCheckinRequest(12, 7, 6, 2, "Invalid mood score");
         DailyCheckinResponse failureResponse = new DailyCheckinResponse(false, "Mood score must be less than or equal to 10");
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.dailyCheckin(eq(testUser), eq(12), eq(7), eq(6), eq(2), eq("Invalid mood score")))
                 .thenReturn(failureResponse);
 
@@ -416,8 +483,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Mood score must be less than or equal to 10"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).dailyCheckin(testUser, 12, 7, 6, 2, "Invalid mood score");
     }
     
@@ -426,8 +492,7 @@ public class InSessionControllerTest {
         AddAlertSensitivityRequest addAlertSensitivityRequest = new AddAlertSensitivityRequest(SensitivityLevel.MEDIUM);
         AddAlertSensitivityResponse successResponse = new AddAlertSensitivityResponse(true, "Alert sensitivity added successfully");
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addAlertSensitivity(eq(testUser), eq(SensitivityLevel.MEDIUM)))
                 .thenReturn(successResponse);
 
@@ -439,8 +504,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Alert sensitivity added successfully"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addAlertSensitivity(testUser, SensitivityLevel.MEDIUM);
     }
     
@@ -449,8 +513,7 @@ public class InSessionControllerTest {
         AddAlertSensitivityRequest addAlertSensitivityRequest = new AddAlertSensitivityRequest(SensitivityLevel.HIGH);
         AddAlertSensitivityResponse failureResponse = new AddAlertSensitivityResponse(false, "Alert sensitivity already exists for this user");
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addAlertSensitivity(eq(testUser), eq(SensitivityLevel.HIGH)))
                 .thenReturn(failureResponse);
 
@@ -462,8 +525,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Alert sensitivity already exists for this user"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addAlertSensitivity(testUser, SensitivityLevel.HIGH);
     }
     
@@ -472,8 +534,7 @@ public class InSessionControllerTest {
         UpdateAlertSensitivityRequest updateAlertSensitivityRequest = new UpdateAlertSensitivityRequest(SensitivityLevel.LOW);
         UpdateAlertSensitivityResponse successResponse = new UpdateAlertSensitivityResponse(true, "Alert sensitivity updated successfully");
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.updateSensitivity(eq(testUser), eq(SensitivityLevel.LOW)))
                 .thenReturn(successResponse);
 
@@ -485,8 +546,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Alert sensitivity updated successfully"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).updateSensitivity(testUser, SensitivityLevel.LOW);
     }
     
@@ -495,8 +555,7 @@ public class InSessionControllerTest {
         UpdateAlertSensitivityRequest updateAlertSensitivityRequest = new UpdateAlertSensitivityRequest(SensitivityLevel.HIGH);
         UpdateAlertSensitivityResponse failureResponse = new UpdateAlertSensitivityResponse(false, "Alert sensitivity not found for this user");
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.updateSensitivity(eq(testUser), eq(SensitivityLevel.HIGH)))
                 .thenReturn(failureResponse);
 
@@ -508,19 +567,106 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Alert sensitivity not found for this user"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).updateSensitivity(testUser, SensitivityLevel.HIGH);
     }
     
+    @Test
+    void testGetScoreTrend() throws Exception {
+        GetScoreTrendResponse trend = new GetScoreTrendResponse(true, "Score trend retrieved successfully",
+                7.5, null, 12, 6.25, 7.0, 6.5, null);
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(userService.getScoreTrend(testUser)).thenReturn(trend);
+
+        mockMvc.perform(get("/insession/daily/checkin/trend")
+                        .header("Authorization", authHeader))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastScore").value(7.5))
+                .andExpect(jsonPath("$.checkinCount").value(12))
+                .andExpect(jsonPath("$.average7Days").value(7.0));
+    }
+
+    @Test
+    void testGetScoreTrendWithoutCheckins() throws Exception {
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(userService.getScoreTrend(testUser)).thenReturn(new GetScoreTrendResponse(true, "No scores found",
+                null, null, 0, null, null, null, null));
+
+        mockMvc.perform(get("/insession/daily/checkin/trend")
+                        .header("Authorization", authHeader))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testGetCheckinHistorySuccess() throws Exception {
+        CheckinHistoryItem item = new CheckinHistoryItem(LocalDate.of(2026, 10, 18), 5, 6, 7, 8, 6.5, "fine");
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(historyService.getCheckins(testUser, "abc", 1)).thenReturn(
+                new HistoryPageResponse<>(true, "History retrieved successfully", List.of(item), "def"));
+
+        mockMvc.perform(get("/insession/history/checkins")
+                        .param("cursor", "abc")
+                        .param("limit", "1")
+                        .header("Authorization", authHeader))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].totalScore").value(6.5))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    void testGetCheckinHistoryOverEnforcedBudget() throws Exception {
+        MockMvc enforcing = MockMvcBuilders.standaloneSetup(inSessionController)
+                .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+                .setControllerAdvice(new QueryBudgetExceptionHandler())
+                .addInterceptors(new QueryBudgetInterceptor(20, true, 5))
+                .build();
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(historyService.getCheckins(testUser, null, null)).thenAnswer(invocation -> {
+            // one statement per check-in, as a lazily loaded association would run
+            for (int i = 0; i < 4; i++) {
+                QueryTracker.statementPrepared("select d.user_id,d.date from daily_checkins d where d.id=?");
+            }
+            return new HistoryPageResponse<>(true, "History retrieved successfully", List.of(), null);
+        });
+
+        enforcing.perform(get("/insession/history/checkins")
+                        .header("Authorization", authHeader))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string(containsString("ran more than 3 statements")));
+    }
+
+    @Test
+    void testGetMedLogHistoryInvalidCursor() throws Exception {
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(historyService.getMedLogs(testUser, "bad", null)).thenReturn(
+                new HistoryPageResponse<>(false, "Invalid cursor", null, null));
+
+        mockMvc.perform(get("/insession/history/medlogs")
+                        .param("cursor", "bad")
+                        .header("Authorization", authHeader))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
+    @Test
+    void testGetAlertHistoryEmpty() throws Exception {
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
+        when(historyService.getAlerts(testUser, null, null)).thenReturn(
+                new HistoryPageResponse<>(true, "History retrieved successfully", List.of(), null));
+
+        mockMvc.perform(get("/insession/history/alerts")
+                        .header("Authorization", authHeader))
+                .andExpect(status().isNoContent());
+    }
+
     @Test
     void testGetOverallScoresSuccess() throws Exception {
         GetOverallScoresRequest getOverallScoresRequest = new GetOverallScoresRequest(7);
-        List<Integer> scores = Arrays.asList(75, 80, 85, 70, 90, 85, 80);
+        List<Double> scores = Arrays.asList(7.5, 8.0, 8.5, 7.0, 9.0, 8.5, 8.0);
         GetOverallScoresResponse successResponse = new GetOverallScoresResponse(true, "Scores retrieved successfully", scores);
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.getOverallScores(eq(testUser), eq(7)))
                 .thenReturn(successResponse);
 
@@ -533,22 +679,20 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.message").value("Scores retrieved successfully"))
                 .andExpect(jsonPath("$.scores").isArray())
                 .andExpect(jsonPath("$.scores", hasSize(7)))
-                .andExpect(jsonPath("$.scores[0]").value(75))
-                .andExpect(jsonPath("$.scores[6]").value(80));
+                .andExpect(jsonPath("$.scores[0]").value(7.5))
+                .andExpect(jsonPath("$.scores[6]").value(8.0));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).getOverallScores(testUser, 7);
     }
     
     @Test
     void testGetOverallScoresNoContent() throws Exception {
         GetOverallScoresRequest getOverallScoresRequest = new GetOverallScoresRequest(7);
-        List<Integer> emptyScores = Collections.emptyList();
+        List<Double> emptyScores = Collections.emptyList();
         GetOverallScoresResponse emptyResponse = new GetOverallScoresResponse(true, "No scores found", emptyScores);
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.getOverallScores(eq(testUser), eq(7)))
                 .thenReturn(emptyResponse);
 
@@ -558,8 +702,7 @@ public class InSessionControllerTest {
                         .content(objectMapper.writeValueAsString(getOverallScoresRequest)))
                 .andExpect(status().isNoContent());
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).getOverallScores(testUser, 7);
     }
     
@@ -568,8 +711,7 @@ public class InSessionControllerTest {
         GetOverallScoresRequest getOverallScoresRequest = new GetOverallScoresRequest(-1); // Invalid number of days
         GetOverallScoresResponse failureResponse = new GetOverallScoresResponse(false, "Number of days must be positive", null);
         
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.getOverallScores(eq(testUser), eq(-1)))
                 .thenReturn(failureResponse);
 
@@ -581,8 +723,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Number of days must be positive"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).getOverallScores(testUser, -1);
     }
 
@@ -591,8 +732,7 @@ public class InSessionControllerTest {
         AddMedicationRequest addMedicationRequest = new AddMedicationRequest("lisinopril", "10mg", "once daily");
         AddMedicationResponse successResponse = new AddMedicationResponse(true, "Medication added successfully");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addMedication(eq(testUser), eq("lisinopril"), eq("10mg"), eq("once daily")))
                 .thenReturn(successResponse);
 
@@ -604,8 +744,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Medication added successfully"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addMedication(testUser, "lisinopril", "10mg", "once daily");
     }
 
@@ -614,8 +753,7 @@ public class InSessionControllerTest {
         AddMedicationRequest addMedicationRequest = new AddMedicationRequest("invalidmed", "10mg", "once daily");
         AddMedicationResponse failureResponse = new AddMedicationResponse(false, "Failed to add medication Database error");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addMedication(eq(testUser), eq("invalidmed"), eq("10mg"), eq("once daily")))
                 .thenReturn(failureResponse);
 
@@ -627,8 +765,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Failed to add medication Database error"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addMedication(testUser, "invalidmed", "10mg", "once daily");
     }
 
@@ -637,8 +774,7 @@ public class InSessionControllerTest {
         AddMedicationLogRequest addMedicationLogRequest = new AddMedicationLogRequest("lisinopril");
         AddMedicationLogResponse successResponse = new AddMedicationLogResponse(true, "Medication log added successfully");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addMedicationLog(eq(testUser), eq("lisinopril")))
                 .thenReturn(successResponse);
 
@@ -650,8 +786,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.message").value("Medication log added successfully"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addMedicationLog(testUser, "lisinopril");
     }
 
@@ -660,8 +795,7 @@ public class InSessionControllerTest {
         AddMedicationLogRequest addMedicationLogRequest = new AddMedicationLogRequest("nonexistentmed");
         AddMedicationLogResponse failureResponse = new AddMedicationLogResponse(false, "Medication not found");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addMedicationLog(eq(testUser), eq("nonexistentmed")))
                 .thenReturn(failureResponse);
 
@@ -673,8 +807,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Medication not found"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addMedicationLog(testUser, "nonexistentmed");
     }
 
@@ -683,8 +816,7 @@ public class InSessionControllerTest {
         AddMedicationLogRequest addMedicationLogRequest = new AddMedicationLogRequest("lisinopril");
         AddMedicationLogResponse failureResponse = new AddMedicationLogResponse(false, "Failed to add medication log Database error");
 
-        when(jwtUtil.validateTokenAndGetUserId(validToken)).thenReturn(testUserId);
-        when(userService.getUserById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userService.getUserReference(testUserId)).thenReturn(testUser);
         when(userService.addMedicationLog(eq(testUser), eq("lisinopril")))
                 .thenReturn(failureResponse);
 
@@ -696,8 +828,7 @@ public class InSessionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Failed to add medication log Database error"));
 
-        verify(jwtUtil).validateTokenAndGetUserId(validToken);
-        verify(userService).getUserById(testUserId);
+        verify(userService).getUserReference(testUserId);
         verify(userService).addMedicationLog(testUser, "lisinopril");
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.paloma.paloma.javaServer.entities;
+
+import com.paloma.paloma.javaServer.repositories.TrustedContactRepository;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hashing, comparing and printing entities must not load anything; the statement count of the
+ * session shows every SELECT Hibernate sends.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityIdentityTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TrustedContactRepository trustedContactRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private User user;
+    private TrustedContact trustedContact;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(user("bob"));
+        User contactUser = userRepository.save(user("alice"));
+        TrustedContact newContact = new TrustedContact();
+        newContact.setUser(user);
+        newContact.setContactUser(contactUser);
+        newContact.setMessageOnNotify("Please check on Bob");
+        trustedContact = trustedContactRepository.save(newContact);
+    }
+
+    @AfterEach
+    void tearDown() {
+        trustedContactRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void hashingAndPrintingLoadedUser_RunsNoStatements() {
+        transaction.executeWithoutResult(status -> {
+            User loaded = userRepository.findById(user.getId()).orElseThrow();
+            statistics.clear();
+
+            Set<User> users = new HashSet<>();
+            users.add(loaded);
+            assertTrue(users.contains(user));
+            assertTrue(loaded.toString().contains("bob"));
+
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertFalse(Hibernate.isInitialized(loaded.getTrustedContacts()));
+            assertFalse(Hibernate.isInitialized(loaded.getDailyCheckins()));
+        });
+    }
+
+    @Test
+    void hashingAndPrintingProxy_DoesNotInitializeIt() {
+        transaction.executeWithoutResult(status -> {
+            TrustedContact loaded = trustedContactRepository.findById(trustedContact.getId()).orElseThrow();
+            statistics.clear();
+
+            User proxy = loaded.getUser();
+            assertEquals(user, proxy);
+            assertEquals(proxy, user);
+            assertEquals(user.hashCode(), proxy.hashCode());
+            assertTrue(loaded.toString().contains("Please check on Bob"));
+
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertFalse(Hibernate.isInitialized(proxy));
+        });
+    }
+
+    @Test
+    void equals_ComparesIds() {
+        User other = user("bob");
+        other.setId(UUID.randomUUID());
+        User copy = user("someone else");
+        copy.setId(user.getId());
+
+        assertNotEquals(user, other);
+        assertEquals(user, copy);
+        assertNotEquals(user("bob"), user("bob"));
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+}
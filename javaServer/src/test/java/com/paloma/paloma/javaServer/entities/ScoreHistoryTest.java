@@ -0,0 +1,93 @@
+package com.paloma.paloma.javaServer.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreHistoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 5, 1);
+
+    @Test
+    void record_KeepsRunningTotalsAndLastScore() {
+        ScoreHistory history = new ScoreHistory(UUID.randomUUID());
+
+        history.record(DAY, 6.0);
+        history.record(DAY.plusDays(1), 7.5);
+        history.record(DAY.plusDays(3), 4.25);
+
+        assertEquals(3, history.getCheckinCount());
+        assertEquals(Optional.of(17.75 / 3), history.allTimeAverage());
+        assertEquals(4.25, history.getLastScore());
+        assertEquals(DAY.plusDays(3), history.getLastDate());
+        assertEquals(Optional.of(List.of(4.25, 7.5, 6.0)), history.latestScores(3));
+    }
+
+    @Test
+    void record_SameDayAgain_ReplacesScore() {
+        ScoreHistory history = new ScoreHistory(UUID.randomUUID());
+
+        history.record(DAY, 6.0);
+        history.record(DAY, 9.0);
+
+        assertEquals(1, history.getCheckinCount());
+        assertEquals(Optional.of(9.0), history.allTimeAverage());
+        assertEquals(9.0, history.getLastScore());
+    }
+
+    @Test
+    void averageOver_OnlyCountsDaysInPeriod() {
+        ScoreHistory history = new ScoreHistory(UUID.randomUUID());
+        history.record(DAY, 2.0);
+        history.record(DAY.plusDays(20), 8.0);
+        history.record(DAY.plusDays(25), 6.0);
+
+        LocalDate today = DAY.plusDays(27);
+        assertEquals(Optional.of(6.0), history.averageOver(7, today));
+        assertEquals(Optional.of(16.0 / 3), history.averageOver(30, today));
+        // nothing in the week after the last check-in
+        assertEquals(Optional.empty(), history.averageOver(7, DAY.plusDays(40)));
+    }
+
+    @Test
+    void record_AfterLongGap_ClearsWindowButKeepsTotals() {
+        ScoreHistory history = new ScoreHistory(UUID.randomUUID());
+        history.record(DAY, 2.0);
+        history.record(DAY.plusDays(1), 4.0);
+
+        history.record(DAY.plusDays(200), 8.0);
+
+        assertEquals(3, history.getCheckinCount());
+        assertEquals(Optional.of(14.0 / 3), history.allTimeAverage());
+        assertEquals(Optional.of(8.0), history.averageOver(90, DAY.plusDays(200)));
+        // the two old scores are outside the window, so they cannot be listed from it
+        assertEquals(Optional.empty(), history.latestScores(3));
+        assertEquals(Optional.of(List.of(8.0)), history.latestScores(1));
+    }
+
+    @Test
+    void record_DayReusingSlot_DoesNotSeeOldScore() {
+        ScoreHistory history = new ScoreHistory(UUID.randomUUID());
+        history.record(DAY, 2.0);
+
+        // same ring slot, one window later
+        history.record(DAY.plusDays(ScoreHistory.WINDOW_DAYS), 5.0);
+
+        assertEquals(2, history.getCheckinCount());
+        assertEquals(Optional.of(3.5), history.allTimeAverage());
+    }
+
+    @Test
+    void latestScores_FewerCheckinsThanRequested_ReturnsAll() {
+        ScoreHistory history = new ScoreHistory(UUID.randomUUID());
+        history.record(DAY, 3.0);
+
+        assertEquals(Optional.of(List.of(3.0)), history.latestScores(7));
+        assertEquals(Optional.of(List.of()), new ScoreHistory(UUID.randomUUID()).latestScores(7));
+    }
+}
@@ -0,0 +1,63 @@
+package com.paloma.paloma.javaServer.entities.ids;
+
+import com.paloma.paloma.javaServer.utilites.UuidBytes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_SetsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before, "timestamp should not be earlier than the clock");
+        // the counter may borrow a few milliseconds when other tests generated many ids
+        assertTrue(timestamp <= after + 100, "timestamp should follow the clock");
+    }
+
+    @Test
+    void next_IsStrictlyIncreasingInStorageOrder() {
+        List<UUID> ids = IntStream.range(0, 20_000).mapToObj(i -> UuidV7Generator.next()).toList();
+
+        for (int i = 1; i < ids.size(); i++) {
+            // MySQL compares BINARY(16) byte by byte, unsigned
+            assertTrue(Arrays.compareUnsigned(UuidBytes.toBytes(ids.get(i - 1)), UuidBytes.toBytes(ids.get(i))) < 0,
+                    "ids must sort in generation order");
+        }
+    }
+
+    @Test
+    void next_StaysOrderedWhenTheClockGoesBack() {
+        long now = System.currentTimeMillis();
+        UUID first = UuidV7Generator.next(now);
+        UUID second = UuidV7Generator.next(now - 10_000);
+
+        assertTrue(Arrays.compareUnsigned(UuidBytes.toBytes(first), UuidBytes.toBytes(second)) < 0);
+    }
+
+    @Test
+    void next_IsUniqueAcrossThreads() {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 8).parallel().forEach(t -> {
+            for (int i = 0; i < 10_000; i++) {
+                ids.add(UuidV7Generator.next());
+            }
+        });
+
+        assertEquals(80_000, ids.size());
+    }
+}
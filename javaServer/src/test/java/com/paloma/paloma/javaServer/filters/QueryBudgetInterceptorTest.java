@@ -0,0 +1,79 @@
+package com.paloma.paloma.javaServer.filters;
+
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
+import com.paloma.paloma.javaServer.utilites.QueryTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryBudgetInterceptorTest {
+
+    private static final String SELECT = "select u.id from users u where u.id=?";
+
+    static class Handlers {
+        @QueryBudget(1)
+        public void budgeted() {
+        }
+
+        public void unannotated() {
+        }
+    }
+
+    @Test
+    void annotatedHandler_UsesItsBudget() throws Exception {
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(20, true, 5);
+        MockHttpServletRequest request = request("budgeted");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("budgeted"));
+        try {
+            QueryTracker.statementPrepared(SELECT);
+            assertThrows(QueryBudgetExceededException.class, () -> QueryTracker.statementPrepared(SELECT));
+        } finally {
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("budgeted"), null);
+        }
+    }
+
+    @Test
+    void unannotatedHandler_DefaultBudgetAndScopeClosedAfterCompletion() throws Exception {
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(20, true, 5);
+        MockHttpServletRequest request = request("unannotated");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("unannotated"));
+        for (int i = 0; i < 20; i++) {
+            QueryTracker.statementPrepared(SELECT);
+        }
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("unannotated"), null);
+
+        // no scope left open on the thread
+        QueryTracker.statementPrepared(SELECT);
+    }
+
+    @Test
+    void asyncHandler_ScopeClosedWhenConcurrentHandlingStarts() throws Exception {
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(20, true, 5);
+        MockHttpServletRequest request = request("budgeted");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("budgeted"));
+        QueryTracker.statementPrepared(SELECT);
+        interceptor.afterConcurrentHandlingStarted(request, new MockHttpServletResponse(), handler("budgeted"));
+
+        // the servlet thread goes on to other requests without the budget of this one
+        QueryTracker.statementPrepared(SELECT);
+        QueryTracker.statementPrepared(SELECT);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("budgeted"), null);
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + path);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/" + path);
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+}
@@ -0,0 +1,124 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.caches.RecentWriters;
+import com.paloma.paloma.javaServer.entities.DailyCheckin;
+import com.paloma.paloma.javaServer.entities.MedLog;
+import com.paloma.paloma.javaServer.entities.Medication;
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.utilites.UuidBytes;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ScoreHistoryService scoreHistoryService;
+
+    @Mock
+    private RecentWriters recentWriters;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ActivityLogWriter activityLogWriter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        activityLogWriter = new ActivityLogWriter(jdbcTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), scoreHistoryService, recentWriters, transactionManager,
+                Duration.ZERO, 100, 100, Duration.ofSeconds(5));
+        user = new User();
+        user.setId(UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() {
+        activityLogWriter.shutdown();
+    }
+
+    @Test
+    void upsert_WritesOnUserAndDateKey() {
+        activityLogWriter.upsert(new DailyCheckin(user, LocalDate.of(2026, 3, 1), 8, 7, 6, 2, "ok"));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), rows.capture());
+        assertTrue(sql.getValue().contains("ON DUPLICATE KEY UPDATE"));
+        Object[] row = rows.getValue().get(0);
+        assertArrayEquals(UuidBytes.toBytes(user.getId()), (byte[]) row[1]);
+        assertEquals(java.sql.Date.valueOf("2026-03-01"), row[2]);
+        verify(scoreHistoryService).record(user.getId(), LocalDate.of(2026, 3, 1), 5.75);
+        verify(transactionManager).commit(any());
+        verify(recentWriters).markWrite(user.getId());
+    }
+
+    @Test
+    void upsert_OutOfRangeScore_RejectedBeforeQueueing() {
+        DailyCheckin checkin = new DailyCheckin(user, LocalDate.now(), 12, 7, 6, 2, null);
+
+        ConstraintViolationException e = assertThrows(ConstraintViolationException.class,
+                () -> activityLogWriter.upsert(checkin));
+
+        assertEquals("Mood score must be less than or equal to 10", e.getMessage());
+        verifyNoInteractions(jdbcTemplate, scoreHistoryService, transactionManager);
+    }
+
+    @Test
+    void upsert_MedLog_WritesOnMedicationAndDateKey() {
+        Medication medication = new Medication();
+        medication.setId(UUID.randomUUID());
+
+        MedLog medLog = medLog(medication);
+        activityLogWriter.upsert(medLog);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), rows.capture());
+        assertTrue(sql.getValue().startsWith("INSERT INTO med_logs"));
+        assertTrue(sql.getValue().contains("ON DUPLICATE KEY UPDATE"));
+        Object[] row = rows.getValue().get(0);
+        assertArrayEquals(UuidBytes.toBytes(medLog.getId()), (byte[]) row[0]);
+        assertArrayEquals(UuidBytes.toBytes(user.getId()), (byte[]) row[1]);
+        assertArrayEquals(UuidBytes.toBytes(medication.getId()), (byte[]) row[2]);
+        assertEquals(java.sql.Date.valueOf("2026-03-01"), row[3]);
+        assertNull(medication.getMedLogs());
+        verify(recentWriters).markWrite(user.getId());
+        verifyNoInteractions(scoreHistoryService);
+    }
+
+    private MedLog medLog(Medication medication) {
+        MedLog medLog = new MedLog();
+        medLog.setUser(user);
+        medLog.setMedication(medication);
+        medLog.setDate(LocalDate.of(2026, 3, 1));
+        medLog.setTaken(true);
+        medLog.setCreatedAt(LocalDateTime.of(2026, 3, 1, 20, 0));
+        return medLog;
+    }
+}
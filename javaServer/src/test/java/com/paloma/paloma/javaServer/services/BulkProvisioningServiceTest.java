@@ -0,0 +1,214 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paloma.paloma.javaServer.caches.RoleCatalog;
+import com.paloma.paloma.javaServer.entities.Role;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkProvisioningServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private RoleCatalog roleCatalog;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BulkProvisioningService bulkProvisioningService;
+
+    @BeforeEach
+    void setUp() {
+        bulkProvisioningService = new BulkProvisioningService(userRepository, passwordHashingService, roleCatalog,
+                jdbcTemplate, transactionManager, objectMapper, 2);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        lenient().when(roleCatalog.get(any(RoleType.class)))
+                .thenAnswer(invocation -> new Role(UUID.randomUUID(), invocation.getArgument(0), null));
+        lenient().when(passwordHashingService.encodeAll(anyList()))
+                .thenAnswer(invocation -> ((List<String>) invocation.getArgument(0)).stream()
+                        .map(p -> "hash-" + p).collect(Collectors.toList()));
+    }
+
+    @Test
+    void provision_Ndjson_InsertsInChunksWithBatches() throws Exception {
+        String upload = IntStream.range(0, 5)
+                .mapToObj(i -> "{\"username\":\"user" + i + "\",\"email\":\"user" + i + "@clinic.org\",\"password\":\"pw" + i + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        List<JsonNode> results = provision(upload, BulkProvisioningService.Format.NDJSON);
+
+        assertEquals(5, results.size());
+        results.forEach(r -> assertEquals("created", r.get("status").asText()));
+        // 3 chunks of at most 2 rows, 3 batches each, 2 set-based lookups each
+        verify(jdbcTemplate, times(9)).batchUpdate(anyString(), anyList());
+        verify(userRepository, times(3)).findExistingEmailsNormalized(anyCollection());
+        verify(userRepository, times(3)).findExistingUsernamesNormalized(anyCollection());
+        verify(passwordHashingService, times(3)).encodeAll(anyList());
+    }
+
+    @Test
+    void provision_Csv_ParsesHeaderAndQuotedFields() throws Exception {
+        String upload = "username,email,fullName,password,roleType\n" +
+                "ann,ann@clinic.org,\"Smith, Ann\",secret,trusted_contact\n";
+
+        List<JsonNode> results = provision(upload, BulkProvisioningService.Format.CSV);
+
+        assertEquals(1, results.size());
+        assertEquals(2, results.get(0).get("line").asLong());
+        assertEquals("created", results.get(0).get("status").asText());
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), rows.capture());
+        Object[] user = rows.getAllValues().get(0).get(0);
+        assertEquals("Smith, Ann", user[3]);
+        Object[] userRole = rows.getAllValues().get(2).get(0);
+        assertEquals(false, userRole[3]); // only USER is a primary role
+        verify(roleCatalog).get(RoleType.TRUSTED_CONTACT);
+    }
+
+    @Test
+    void provision_RejectsInvalidAndDuplicateRowsWithoutTouchingDatabase() throws Exception {
+        String upload = String.join("\n",
+                "{\"username\":\"a\",\"email\":\"a@clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"b\",\"email\":\"A@Clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"c@x\",\"email\":\"c@clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"d\",\"email\":\"d@clinic.org\"}",
+                "{\"username\":\"e\",\"email\":\"e@clinic.org\",\"password\":\"pw\",\"roleType\":\"ADMIN\"}",
+                "not json");
+
+        List<JsonNode> results = provision(upload, BulkProvisioningService.Format.NDJSON);
+
+        assertEquals(6, results.size());
+        assertEquals(1, results.stream().filter(r -> r.get("status").asText().equals("created")).count());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), results.stream()
+                .filter(r -> r.get("status").asText().equals("rejected"))
+                .map(r -> r.get("line").asLong()).sorted().toList());
+    }
+
+    @Test
+    void provision_ExistingAccounts_RejectedFromSetBasedCheck() throws Exception {
+        when(userRepository.findExistingEmailsNormalized(anyCollection())).thenReturn(List.of("taken@clinic.org"));
+        String upload = String.join("\n",
+                "{\"username\":\"x\",\"email\":\"Taken@clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"y\",\"email\":\"free@clinic.org\",\"password\":\"pw\"}");
+
+        List<JsonNode> results = provision(upload, BulkProvisioningService.Format.NDJSON);
+
+        JsonNode rejected = results.stream().filter(r -> r.get("line").asLong() == 1).findFirst().orElseThrow();
+        assertEquals("rejected", rejected.get("status").asText());
+        verify(passwordHashingService).encodeAll(List.of("pw"));
+    }
+
+    @Test
+    void provision_BatchConflict_FallsBackToSingleRows() throws Exception {
+        List<String> insertedUsers = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> batch = invocation.getArgument(1);
+            if (sql.startsWith("INSERT INTO users")) {
+                if (batch.size() > 1 || batch.get(0)[1].equals("raced")) {
+                    throw new DuplicateKeyException("Duplicate entry");
+                }
+                insertedUsers.add((String) batch.get(0)[1]);
+            }
+            return new int[batch.size()];
+        });
+        String upload = String.join("\n",
+                "{\"username\":\"raced\",\"email\":\"raced@clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"fine\",\"email\":\"fine@clinic.org\",\"password\":\"pw\"}");
+
+        List<JsonNode> results = provision(upload, BulkProvisioningService.Format.NDJSON);
+
+        assertEquals(List.of("fine"), insertedUsers);
+        JsonNode raced = results.stream().filter(r -> r.get("line").asLong() == 1).findFirst().orElseThrow();
+        assertEquals("rejected", raced.get("status").asText());
+        assertEquals("There is already an account with this email address or username", raced.get("message").asText());
+        assertEquals("created", results.stream().filter(r -> r.get("line").asLong() == 2).findFirst().orElseThrow().get("status").asText());
+    }
+
+    @Test
+    void provision_ValuesLongerThanColumns_RejectedWithoutTouchingDatabase() throws Exception {
+        String upload = String.join("\n",
+                "{\"username\":\"" + "u".repeat(101) + "\",\"email\":\"a@clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"b\",\"email\":\"" + "e".repeat(200) + "@clinic.org\",\"password\":\"pw\"}",
+                "{\"username\":\"c\",\"email\":\"c@clinic.org\",\"fullName\":\"" + "n".repeat(101) + "\",\"password\":\"pw\"}");
+
+        List<JsonNode> results = provision(upload, BulkProvisioningService.Format.NDJSON);
+
+        assertEquals(List.of(
+                "Username must be at most 100 characters",
+                "Email must be at most 200 characters",
+                "Full name must be at most 100 characters"), results.stream().map(r -> r.get("message").asText()).toList());
+        verifyNoInteractions(userRepository, jdbcTemplate);
+    }
+
+    @Test
+    void provision_IntegrityFailureOtherThanDuplicate_NotReportedAsDuplicate() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.startsWith("INSERT INTO users")) {
+                throw new DataIntegrityViolationException("Data too long for column 'full_name'");
+            }
+            return new int[0];
+        });
+
+        List<JsonNode> results = provision("{\"username\":\"a\",\"email\":\"a@clinic.org\",\"password\":\"pw\"}",
+                BulkProvisioningService.Format.NDJSON);
+
+        assertEquals("The account could not be stored", results.get(0).get("message").asText());
+    }
+
+    @Test
+    void splitCsv_HandlesEscapedQuotes() {
+        assertEquals(List.of("a", "say \"hi\"", ""), BulkProvisioningService.splitCsv("a,\"say \"\"hi\"\"\","));
+        assertThrows(IllegalArgumentException.class, () -> BulkProvisioningService.splitCsv("\"open"));
+    }
+
+    private List<JsonNode> provision(String upload, BulkProvisioningService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkProvisioningService.provision(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)), format, out);
+        List<JsonNode> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                results.add(objectMapper.readTree(line));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,138 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.caches.UserProfileCache;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.ClearDatabaseResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.TableClearResult;
+import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DbClearServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @Mock
+    private UserProfileCache userProfileCache;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private DbClearService dbClearService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        lenient().when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        lenient().when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+        dbClearService = new DbClearService(jdbcTemplate, transactionManager, entityManagerFactory, userProfileCache,
+                jwtUtil, tokenRevocationService);
+    }
+
+    @Test
+    void delete_OneStatementPerTableInForeignKeyOrder() {
+        when(jdbcTemplate.update(anyString())).thenReturn(0);
+        when(jdbcTemplate.update("DELETE FROM users")).thenReturn(3);
+
+        ClearDatabaseResponse response = dbClearService.clearAllData(DbClearService.Mode.DELETE);
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update("DELETE FROM alerts");
+        order.verify(jdbcTemplate).update("DELETE FROM trusted_contacts");
+        order.verify(jdbcTemplate).update("DELETE FROM users");
+        verify(jdbcTemplate, times(DbClearService.TABLES.size())).update(anyString());
+        verify(transactionManager).commit(any());
+        assertTrue(response.isSuccess());
+        assertEquals("DELETE", response.getMode());
+        assertEquals(DbClearService.TABLES, response.getTables().stream().map(TableClearResult::getTable).toList());
+        assertEquals(3, response.getTables().get(DbClearService.TABLES.size() - 1).getRows());
+        verify(secondLevelCache).evictAllRegions();
+        verify(userProfileCache).evictAll();
+        verify(jwtUtil).evictVerifiedTokens();
+        verify(tokenRevocationService).clear();
+    }
+
+    @Test
+    void delete_Failure_RolledBackAndCachesKept() {
+        when(jdbcTemplate.update(anyString())).thenThrow(new IllegalStateException("lock wait timeout"));
+
+        assertThrows(IllegalStateException.class, () -> dbClearService.clearAllData(DbClearService.Mode.DELETE));
+
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(userProfileCache);
+    }
+
+    @Test
+    void truncate_CountsRowsAndSuspendsForeignKeyChecksOnOneConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet count = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(startsWith("SELECT COUNT(*)"))).thenReturn(count);
+        when(count.getLong(1)).thenReturn(2_000_000L);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+        ClearDatabaseResponse response = dbClearService.clearAllData(DbClearService.Mode.TRUNCATE);
+
+        InOrder order = inOrder(statement);
+        order.verify(statement).execute("SET FOREIGN_KEY_CHECKS = 0");
+        order.verify(statement).execute("TRUNCATE TABLE alerts");
+        order.verify(statement).execute("TRUNCATE TABLE users");
+        order.verify(statement).execute("SET FOREIGN_KEY_CHECKS = 1");
+        assertEquals(2_000_000L, response.getTables().get(0).getRows());
+        assertEquals("TRUNCATE", response.getMode());
+        verifyNoInteractions(transactionManager);
+        verify(secondLevelCache).evictAllRegions();
+    }
+
+    @Test
+    void truncate_Failure_RestoresForeignKeyChecks() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenThrow(new SQLException("table is locked"));
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+
+        assertThrows(SQLException.class, () -> dbClearService.clearAllData(DbClearService.Mode.TRUNCATE));
+
+        verify(statement).execute("SET FOREIGN_KEY_CHECKS = 1");
+    }
+}
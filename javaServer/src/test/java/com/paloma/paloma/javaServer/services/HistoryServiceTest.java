@@ -0,0 +1,184 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.AlertHistoryItem;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.CheckinHistoryItem;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.HistoryPageResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.MedLogHistoryItem;
+import com.paloma.paloma.javaServer.entities.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the history lists against an embedded database, including a user with five years of
+ * daily check-ins.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(HistoryService.class)
+class HistoryServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Autowired
+    private HistoryService historyService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = entityManager.persist(user("bob"));
+    }
+
+    @Test
+    void getCheckins_FiveYears_EveryPageOneStatementWithoutGapsOrDuplicates() {
+        int days = 5 * 365;
+        for (int i = 0; i < days; i++) {
+            DailyCheckin checkin = new DailyCheckin(user, TODAY.minusDays(i), 5, 6, 7, 2, null);
+            entityManager.persist(checkin);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<LocalDate> dates = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            HistoryPageResponse<CheckinHistoryItem> page = historyService.getCheckins(user, cursor, 100);
+
+            assertTrue(page.isSuccess());
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertTrue(page.getItems().size() <= 100);
+            page.getItems().forEach(item -> dates.add(item.getDate()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(days, dates.size());
+        assertEquals(TODAY, dates.get(0));
+        for (int i = 1; i < dates.size(); i++) {
+            assertEquals(dates.get(i - 1).minusDays(1), dates.get(i));
+        }
+    }
+
+    @Test
+    void getCheckins_LastPageFull_NoNextCursor() {
+        for (int i = 0; i < 4; i++) {
+            entityManager.persist(new DailyCheckin(user, TODAY.minusDays(i), 5, 6, 7, 2, null));
+        }
+
+        HistoryPageResponse<CheckinHistoryItem> first = historyService.getCheckins(user, null, 2);
+        HistoryPageResponse<CheckinHistoryItem> second = historyService.getCheckins(user, first.getNextCursor(), 2);
+
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(TODAY.minusDays(2), TODAY.minusDays(3)),
+                second.getItems().stream().map(CheckinHistoryItem::getDate).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getMedLogs_SameDate_TiesBrokenById() {
+        Medication aspirin = entityManager.persist(medication("aspirin"));
+        Medication ibuprofen = entityManager.persist(medication("ibuprofen"));
+        for (int i = 0; i < 2; i++) {
+            entityManager.persist(medLog(aspirin, TODAY.minusDays(i)));
+            entityManager.persist(medLog(ibuprofen, TODAY.minusDays(i)));
+        }
+
+        List<MedLogHistoryItem> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            HistoryPageResponse<MedLogHistoryItem> page = historyService.getMedLogs(user, cursor, 1);
+            items.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(4, items.size());
+        assertEquals(2, items.stream().filter(item -> item.getDate().equals(TODAY)).count());
+        assertEquals(2, items.stream().filter(item -> item.getMedicationName().equals("aspirin")).count());
+        assertEquals(TODAY, items.get(1).getDate());
+        assertEquals(TODAY.minusDays(1), items.get(2).getDate());
+    }
+
+    @Test
+    void getAlerts_PagesNewestFirstWithContactEmail() {
+        User contactUser = entityManager.persist(user("alice"));
+        TrustedContact contact = new TrustedContact();
+        contact.setUser(user);
+        contact.setContactUser(contactUser);
+        entityManager.persist(contact);
+        LocalDateTime triggeredAt = LocalDateTime.of(2026, 10, 1, 12, 0);
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(new Alert(null, user, contact, "Low scores " + i, triggeredAt.plusHours(i), true));
+        }
+
+        HistoryPageResponse<AlertHistoryItem> first = historyService.getAlerts(user, null, 2);
+        HistoryPageResponse<AlertHistoryItem> second = historyService.getAlerts(user, first.getNextCursor(), 2);
+
+        assertEquals(List.of("Low scores 2", "Low scores 1"),
+                first.getItems().stream().map(AlertHistoryItem::getReason).toList());
+        assertEquals("alice@example.com", first.getItems().get(0).getContactEmail());
+        assertEquals(List.of("Low scores 0"), second.getItems().stream().map(AlertHistoryItem::getReason).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getCheckins_InvalidCursor_Rejected() {
+        HistoryPageResponse<CheckinHistoryItem> response = historyService.getCheckins(user, "not-a-cursor", 10);
+
+        assertFalse(response.isSuccess());
+        assertEquals("Invalid cursor", response.getMessage());
+    }
+
+    @Test
+    void getCheckins_LimitOutOfRange_Rejected() {
+        assertFalse(historyService.getCheckins(user, null, 0).isSuccess());
+        assertFalse(historyService.getCheckins(user, null, 101).isSuccess());
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return user;
+    }
+
+    private Medication medication(String name) {
+        Medication medication = new Medication();
+        medication.setUser(user);
+        medication.setName(name);
+        medication.setDosage("100mg");
+        medication.setDailySchedule("morning");
+        medication.setIsActive(true);
+        medication.setCreatedAt(LocalDateTime.now());
+        return medication;
+    }
+
+    private MedLog medLog(Medication medication, LocalDate date) {
+        MedLog medLog = new MedLog();
+        medLog.setUser(user);
+        medLog.setMedication(medication);
+        medLog.setDate(date);
+        medLog.setTaken(true);
+        return medLog;
+    }
+}
@@ -0,0 +1,115 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.exceptions.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleServiceTest {
+
+    private LoginThrottleService throttleService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        throttleService = new LoginThrottleService(3, Duration.ofMinutes(1), 10, Duration.ofMinutes(1), 1_000);
+        meterRegistry = new SimpleMeterRegistry();
+        throttleService.bindMetrics(meterRegistry);
+    }
+
+    @Test
+    void checkAttempt_RejectsIdentifierOverLimit() {
+        for (int i = 0; i < 3; i++) {
+            throttleService.checkAttempt("alice@example.com", "10.0.0." + i);
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttleService.checkAttempt("alice@example.com", "10.0.0.9"));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1, meterRegistry.get("paloma.login.throttled").tag("key", "identifier").counter().count());
+    }
+
+    @Test
+    void checkAttempt_NormalizesIdentifier() {
+        throttleService.checkAttempt("Alice@Example.com", "10.0.0.1");
+        throttleService.checkAttempt(" alice@example.com ", "10.0.0.2");
+        throttleService.checkAttempt("ALICE@EXAMPLE.COM", "10.0.0.3");
+
+        assertThrows(LoginThrottledException.class,
+                () -> throttleService.checkAttempt("alice@example.com", "10.0.0.4"));
+    }
+
+    @Test
+    void checkAttempt_RejectsAddressOverLimit() {
+        for (int i = 0; i < 10; i++) {
+            throttleService.checkAttempt("user" + i, "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> throttleService.checkAttempt("other", "10.0.0.1"));
+        assertEquals(1, meterRegistry.get("paloma.login.throttled").tag("key", "address").counter().count());
+    }
+
+    @Test
+    void checkAttempt_KeysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            throttleService.checkAttempt("alice", "10.0.0.1");
+        }
+
+        assertDoesNotThrow(() -> throttleService.checkAttempt("bob", "10.0.0.2"));
+    }
+
+    @Test
+    void checkAttempt_ConcurrentAttemptsAdmitExactlyCapacity() throws Exception {
+        int threads = 16;
+        int attemptsPerThread = 20_000;
+        LoginThrottleService service = new LoginThrottleService(100, Duration.ofHours(1), 1_000_000, Duration.ofHours(1), 1_000);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String address = "10.0.1." + t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        try {
+                            service.checkAttempt("target@example.com", address);
+                            admitted.incrementAndGet();
+                        } catch (LoginThrottledException ignored) {
+                            // expected for all but the first 100 attempts
+                        }
+                    }
+                    return System.nanoTime() - begin;
+                }));
+            }
+            start.countDown();
+
+            long totalNanos = 0;
+            for (Future<Long> result : results) {
+                totalNanos += result.get(30, TimeUnit.SECONDS);
+            }
+            long nanosPerAttempt = totalNanos / ((long) threads * attemptsPerThread);
+
+            assertEquals(100, admitted.get());
+            // a rejected attempt is a map lookup and a CAS; allow plenty of headroom for slow CI machines
+            assertTrue(nanosPerAttempt < TimeUnit.MICROSECONDS.toNanos(50),
+                    "average cost per attempt was " + nanosPerAttempt + "ns");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
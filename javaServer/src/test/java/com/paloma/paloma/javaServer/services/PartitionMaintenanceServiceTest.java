@@ -0,0 +1,148 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.services.PartitionMaintenanceService.Partition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintain_SplitsUpcomingMonthsOffCatchAll() {
+        PartitionMaintenanceService service = service(0, true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service.bindMetrics(meterRegistry);
+        stubPartitions("daily_checkins",
+                new Partition("p_history", LocalDate.of(2026, 11, 1)),
+                new Partition("pmax", null));
+
+        service.maintain("daily_checkins", TODAY);
+
+        verify(jdbcTemplate).execute("ALTER TABLE daily_checkins REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p202611 VALUES LESS THAN ('2026-12-01'), "
+                + "PARTITION p202612 VALUES LESS THAN ('2027-01-01'), "
+                + "PARTITION p202701 VALUES LESS THAN ('2027-02-01'), "
+                + "PARTITION pmax VALUES LESS THAN (MAXVALUE))");
+        assertEquals(3, meterRegistry.get("paloma.partitions.created").counter().count());
+    }
+
+    @Test
+    void maintain_AllMonthsExist_RunsNoDdl() {
+        stubPartitions("med_logs",
+                new Partition("p202612", LocalDate.of(2027, 1, 1)),
+                new Partition("p202701", LocalDate.of(2027, 2, 1)),
+                new Partition("pmax", null));
+
+        service(0, true).maintain("med_logs", TODAY);
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void maintain_TableNotPartitioned_Skipped() {
+        stubPartitions("daily_checkins");
+
+        service(12, false).maintain("daily_checkins", TODAY);
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void maintain_RetentionDropsOnlyMonthsBeforeCutoff() {
+        stubPartitions("med_logs",
+                new Partition("p202608", LocalDate.of(2026, 9, 1)),
+                new Partition("p202609", LocalDate.of(2026, 10, 1)),
+                new Partition("p202610", LocalDate.of(2026, 11, 1)),
+                new Partition("p202611", LocalDate.of(2026, 12, 1)),
+                new Partition("p202612", LocalDate.of(2027, 1, 1)),
+                new Partition("p202701", LocalDate.of(2027, 2, 1)),
+                new Partition("pmax", null));
+
+        // keeps September and later
+        service(1, false).maintain("med_logs", TODAY);
+
+        verify(jdbcTemplate).execute("ALTER TABLE med_logs DROP PARTITION p202608");
+        verify(jdbcTemplate, times(1)).execute(anyString());
+    }
+
+    @Test
+    void removeStatements_Archive_ExchangesBeforeDropping() {
+        List<String> statements = PartitionMaintenanceService.removeStatements("daily_checkins",
+                new Partition("p202608", LocalDate.of(2026, 9, 1)), true);
+
+        assertEquals(List.of(
+                "CREATE TABLE daily_checkins_archive_p202608 LIKE daily_checkins",
+                "ALTER TABLE daily_checkins_archive_p202608 REMOVE PARTITIONING",
+                "ALTER TABLE daily_checkins EXCHANGE PARTITION p202608 WITH TABLE daily_checkins_archive_p202608",
+                "ALTER TABLE daily_checkins DROP PARTITION p202608"), statements);
+    }
+
+    @Test
+    void missingMonths_LastPartitionNotCatchAll_Throws() {
+        List<Partition> partitions = List.of(new Partition("p202611", LocalDate.of(2026, 12, 1)));
+
+        assertThrows(IllegalStateException.class,
+                () -> PartitionMaintenanceService.missingMonths("med_logs", partitions, YearMonth.of(2027, 1)));
+    }
+
+    @Test
+    void maintain_FailureOnOneTable_OtherTablesStillMaintained() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq("daily_checkins")))
+                .thenThrow(new BadSqlGrammarException("partitions", "SELECT", new SQLException("denied")));
+        stubPartitions("med_logs");
+
+        service(0, true).maintain();
+
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq("med_logs"));
+    }
+
+    @Test
+    void maintainOnStartup_UnexpectedLayout_SkippedWithoutFailing() {
+        stubPartitions("daily_checkins", new Partition("p202611", LocalDate.of(2026, 12, 1)));
+        stubPartitions("med_logs",
+                new Partition("p202612", LocalDate.of(2027, 1, 1)),
+                new Partition("pmax", null));
+
+        assertDoesNotThrow(() -> service(0, true).maintainOnStartup());
+
+        verify(jdbcTemplate).execute(startsWith("ALTER TABLE med_logs REORGANIZE PARTITION pmax"));
+        verify(jdbcTemplate, times(1)).execute(anyString());
+    }
+
+    @Test
+    void parseBound_ReadsInformationSchemaDescriptions() {
+        assertEquals(LocalDate.of(2026, 11, 1), PartitionMaintenanceService.parseBound("'2026-11-01'"));
+        assertNull(PartitionMaintenanceService.parseBound("MAXVALUE"));
+    }
+
+    private PartitionMaintenanceService service(int retentionMonths, boolean archive) {
+        return new PartitionMaintenanceService(jdbcTemplate, List.of("daily_checkins", "med_logs"),
+                3, retentionMonths, archive);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPartitions(String table, Partition... partitions) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(table)))
+                .thenReturn(List.of(partitions));
+    }
+}
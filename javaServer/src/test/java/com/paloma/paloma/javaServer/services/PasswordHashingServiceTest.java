@@ -0,0 +1,88 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        if (passwordHashingService != null) {
+            passwordHashingService.shutdown();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_RoundTrip() {
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 2, 4);
+
+        String hash = passwordHashingService.encode("password123");
+
+        assertTrue(passwordHashingService.matches("password123", hash));
+        assertFalse(passwordHashingService.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get("paloma.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("paloma.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void encodeAll_KeepsOrderAndWaitsInsteadOfRejecting() {
+        // a queue of one would reject most of these if they were submitted at once
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(4), meterRegistry, 2, 1);
+        List<String> passwords = List.of("a1", "b2", "c3", "d4", "e5", "f6", "g7");
+
+        List<String> hashes = passwordHashingService.encodeAll(passwords);
+
+        assertEquals(passwords.size(), hashes.size());
+        for (int i = 0; i < passwords.size(); i++) {
+            assertTrue(passwordHashingService.matches(passwords.get(i), hashes.get(i)));
+        }
+        assertEquals(0, meterRegistry.get("paloma.password.hash.rejected").counter().count());
+    }
+
+    @Test
+    void needsRehash_WhenCostFactorWasRaised() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        passwordHashingService = new PasswordHashingService(new BCryptPasswordEncoder(5), meterRegistry, 1, 1);
+
+        assertTrue(passwordHashingService.needsRehash(weakHash));
+        assertFalse(passwordHashingService.needsRehash(passwordHashingService.encode("password123")));
+    }
+
+    @Test
+    void encode_RejectsFastWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        passwordHashingService = new PasswordHashingService(slowEncoder, meterRegistry, 1, 0);
+
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> passwordHashingService.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordHashingService.encode("second"));
+        assertEquals(1, meterRegistry.get("paloma.password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", busy.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -1,22 +1,27 @@
 package com.paloma.paloma.javaServer.services;
 
-import com.paloma.paloma.javaServer.entities.RefreshAuth;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.JwtResponse;
 import com.paloma.paloma.javaServer.entities.User;
 import com.paloma.paloma.javaServer.repositories.RefreshAuthRepository;
+import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import com.paloma.paloma.javaServer.utilites.TokenDigest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,11 +30,13 @@ class RefreshServiceTest {
     @Mock
     private RefreshAuthRepository refreshAuthRepository;
 
+    @Mock
+    private JwtUtil jwtUtil;
+
     @InjectMocks
     private RefreshService refreshService;
 
     private User testUser;
-    private RefreshAuth testRefreshAuth;
     private String testToken;
 
     @BeforeEach
@@ -41,114 +48,58 @@ class RefreshServiceTest {
         testUser.setCreatedAt(LocalDateTime.now());
 
         testToken = "test-refresh-token";
-        testRefreshAuth = new RefreshAuth();
-        testRefreshAuth.setId(UUID.randomUUID());
-        testRefreshAuth.setUser(testUser);
-        testRefreshAuth.setToken(testToken);
-        testRefreshAuth.setExpiryDate(LocalDateTime.now().plusDays(7));
     }
 
     @Test
-    void validate_ValidToken_Success() {
-        when(refreshAuthRepository.findByToken(testToken))
-                .thenReturn(Optional.of(testRefreshAuth));
+    void refreshAccessToken_ValidToken_SingleStatement() {
+        when(refreshAuthRepository.rotateIfValid(eq(testUser.getId()), hashOf(testToken), any(byte[].class), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(jwtUtil.generateAccessToken(testUser.getId())).thenReturn("new-access-token");
 
-        Optional<User> result = refreshService.validate(testToken);
+        Optional<JwtResponse> result = refreshService.refreshAccessToken(testUser.getId(), testToken);
 
         assertTrue(result.isPresent());
-        assertEquals(testUser, result.get());
-        verify(refreshAuthRepository).findByToken(testToken);
+        assertEquals("new-access-token", result.get().getToken());
+        verify(refreshAuthRepository).rotateIfValid(eq(testUser.getId()), any(byte[].class), any(byte[].class), any(LocalDateTime.class));
+        // the refresh must not load the token or its owner separately
+        verifyNoMoreInteractions(refreshAuthRepository);
     }
 
     @Test
-    void validate_TokenNotFound() {
-        when(refreshAuthRepository.findByToken(anyString()))
-                .thenReturn(Optional.empty());
-
-        Optional<User> result = refreshService.validate("non-existent-token");
-
-        assertFalse(result.isPresent());
-        verify(refreshAuthRepository).findByToken("non-existent-token");
-    }
-
-    @Test
-    void validate_ExpiredToken() {
-        // Set token as expired
-        testRefreshAuth.setExpiryDate(LocalDateTime.now().minusDays(1));
-        when(refreshAuthRepository.findByToken(testToken))
-                .thenReturn(Optional.of(testRefreshAuth));
-
-        Optional<User> result = refreshService.validate(testToken);
-
-        assertFalse(result.isPresent());
-        verify(refreshAuthRepository).findByToken(testToken);
-    }
+    void refreshAccessToken_ReturnsTokenMatchingStoredDigest() {
+        when(refreshAuthRepository.rotateIfValid(any(), any(), any(), any())).thenReturn(1);
 
-    @Test
-    void validate_TokenExpiresInFuture() {
-        // Set token to expire in the future
-        testRefreshAuth.setExpiryDate(LocalDateTime.now().plusHours(1));
-        when(refreshAuthRepository.findByToken(testToken))
-                .thenReturn(Optional.of(testRefreshAuth));
+        String first = refreshService.refreshAccessToken(testUser.getId(), testToken).orElseThrow().getRefreshToken();
+        String second = refreshService.refreshAccessToken(testUser.getId(), first).orElseThrow().getRefreshToken();
 
-        Optional<User> result = refreshService.validate(testToken);
+        ArgumentCaptor<byte[]> presented = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+        verify(refreshAuthRepository, times(2)).rotateIfValid(eq(testUser.getId()), presented.capture(), stored.capture(), any());
 
-        assertTrue(result.isPresent());
-        assertEquals(testUser, result.get());
-        verify(refreshAuthRepository).findByToken(testToken);
+        assertNotEquals(first, second);
+        assertArrayEquals(TokenDigest.sha256(testToken), presented.getAllValues().get(0));
+        assertArrayEquals(TokenDigest.sha256(first), stored.getAllValues().get(0));
+        // the rotated token is what the client presents next
+        assertArrayEquals(stored.getAllValues().get(0), presented.getAllValues().get(1));
+        assertArrayEquals(TokenDigest.sha256(second), stored.getAllValues().get(1));
     }
 
     @Test
-    void validate_TokenExpiresExactlyNow() {
-        // Set token to expire exactly now (should be expired)
-        testRefreshAuth.setExpiryDate(LocalDateTime.now());
-        when(refreshAuthRepository.findByToken(testToken))
-                .thenReturn(Optional.of(testRefreshAuth));
+    void refreshAccessToken_NoValidToken() {
+        when(refreshAuthRepository.rotateIfValid(any(), any(), any(), any())).thenReturn(0);
 
-        Optional<User> result = refreshService.validate(testToken);
+        Optional<JwtResponse> result = refreshService.refreshAccessToken(testUser.getId(), "stolen-or-stale-token");
 
-        // Since we're checking isAfter(now), a token expiring exactly now should be invalid
         assertFalse(result.isPresent());
-        verify(refreshAuthRepository).findByToken(testToken);
+        verifyNoInteractions(jwtUtil);
     }
 
     @Test
-    void createRefreshToken_Success() {
-        RefreshAuth expectedRefreshAuth = new RefreshAuth(
-                UUID.randomUUID(),
-                testUser,
-                "generated-uuid-token",
-                LocalDateTime.now().plusDays(7)
-        );
-
-        when(refreshAuthRepository.save(any(RefreshAuth.class)))
-                .thenReturn(expectedRefreshAuth);
-
-        RefreshAuth result = refreshService.createRefreshToken(testUser);
-
-        assertNotNull(result);
-        assertEquals(testUser, result.getUser());
-        assertNotNull(result.getToken());
-        assertTrue(result.getExpiryDate().isAfter(LocalDateTime.now().plusDays(6))); // Should be about 7 days from now
+    void refreshAccessToken_MissingToken_NoQuery() {
+        assertFalse(refreshService.refreshAccessToken(testUser.getId(), null).isPresent());
+        assertFalse(refreshService.refreshAccessToken(testUser.getId(), "").isPresent());
 
-        verify(refreshAuthRepository).save(any(RefreshAuth.class));
-    }
-
-    @Test
-    void createRefreshToken_TokenIsUnique() {
-        // Mock multiple calls to save to return different tokens
-        when(refreshAuthRepository.save(any(RefreshAuth.class)))
-                .thenAnswer(invocation -> {
-                    RefreshAuth auth = invocation.getArgument(0);
-                    auth.setId(UUID.randomUUID());
-                    return auth;
-                });
-
-        RefreshAuth token1 = refreshService.createRefreshToken(testUser);
-        RefreshAuth token2 = refreshService.createRefreshToken(testUser);
-
-        assertNotEquals(token1.getToken(), token2.getToken());
-        verify(refreshAuthRepository, times(2)).save(any(RefreshAuth.class));
+        verifyNoInteractions(refreshAuthRepository, jwtUtil);
     }
 
     @Test
@@ -179,48 +130,6 @@ class RefreshServiceTest {
         verify(refreshAuthRepository).deleteByUser(null);
     }
 
-    @Test
-    void validate_NullToken() {
-        when(refreshAuthRepository.findByToken(null))
-                .thenReturn(Optional.empty());
-
-        Optional<User> result = refreshService.validate(null);
-
-        assertFalse(result.isPresent());
-        verify(refreshAuthRepository).findByToken(null);
-    }
-
-    @Test
-    void validate_EmptyToken() {
-        when(refreshAuthRepository.findByToken(""))
-                .thenReturn(Optional.empty());
-
-        Optional<User> result = refreshService.validate("");
-
-        assertFalse(result.isPresent());
-        verify(refreshAuthRepository).findByToken("");
-    }
-
-    @Test
-    void validate_DatabaseException() {
-        when(refreshAuthRepository.findByToken(anyString()))
-                .thenThrow(new RuntimeException("Database connection error"));
-
-        assertThrows(RuntimeException.class, () -> refreshService.validate(testToken));
-
-        verify(refreshAuthRepository).findByToken(testToken);
-    }
-
-    @Test
-    void createRefreshToken_DatabaseException() {
-        when(refreshAuthRepository.save(any(RefreshAuth.class)))
-                .thenThrow(new RuntimeException("Database connection error"));
-
-        assertThrows(RuntimeException.class, () -> refreshService.createRefreshToken(testUser));
-
-        verify(refreshAuthRepository).save(any(RefreshAuth.class));
-    }
-
     @Test
     void revokeTokens_DatabaseException() {
         doThrow(new RuntimeException("Database connection error"))
@@ -230,4 +139,9 @@ class RefreshServiceTest {
 
         verify(refreshAuthRepository).deleteByUser(testUser);
     }
+
+    private static byte[] hashOf(String token) {
+        byte[] expected = TokenDigest.sha256(token);
+        return argThat(hash -> Arrays.equals(hash, expected));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.repositories.RefreshAuthRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPurgeServiceTest {
+
+    @Mock
+    private RefreshAuthRepository refreshAuthRepository;
+
+    private RefreshTokenPurgeService purgeService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        purgeService = new RefreshTokenPurgeService(refreshAuthRepository, 100, Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        purgeService.bindMetrics(meterRegistry);
+    }
+
+    @Test
+    void purgeExpired_DeletesInChunksUntilShortChunk() {
+        when(refreshAuthRepository.deleteExpiredChunk(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 40);
+
+        purgeService.purgeExpired();
+
+        verify(refreshAuthRepository, times(3)).deleteExpiredChunk(any(LocalDateTime.class), eq(100));
+        assertEquals(240, meterRegistry.get("paloma.refresh.purge.rows").counter().count());
+        assertEquals(3, meterRegistry.get("paloma.refresh.purge.chunk").timer().count());
+    }
+
+    @Test
+    void purgeExpired_UsesSameCutoffForEveryChunk() {
+        when(refreshAuthRepository.deleteExpiredChunk(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 0);
+
+        purgeService.purgeExpired();
+
+        ArgumentCaptor<LocalDateTime> cutoffs = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(refreshAuthRepository, times(2)).deleteExpiredChunk(cutoffs.capture(), eq(100));
+        assertEquals(cutoffs.getAllValues().get(0), cutoffs.getAllValues().get(1));
+    }
+
+    @Test
+    void purgeExpired_NothingExpired() {
+        when(refreshAuthRepository.deleteExpiredChunk(any(LocalDateTime.class), eq(100))).thenReturn(0);
+
+        purgeService.purgeExpired();
+
+        verify(refreshAuthRepository, times(1)).deleteExpiredChunk(any(LocalDateTime.class), eq(100));
+        assertEquals(0, meterRegistry.get("paloma.refresh.purge.rows").counter().count());
+    }
+
+    @Test
+    void purgeExpired_LockTimeout_StopsRunAndCounts() {
+        when(refreshAuthRepository.deleteExpiredChunk(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100)
+                .thenThrow(new CannotAcquireLockException("Lock wait timeout exceeded"));
+
+        assertDoesNotThrow(() -> purgeService.purgeExpired());
+
+        verify(refreshAuthRepository, times(2)).deleteExpiredChunk(any(LocalDateTime.class), eq(100));
+        assertEquals(1, meterRegistry.get("paloma.refresh.purge.lock.failures").counter().count());
+        assertEquals(100, meterRegistry.get("paloma.refresh.purge.rows").counter().count());
+    }
+}
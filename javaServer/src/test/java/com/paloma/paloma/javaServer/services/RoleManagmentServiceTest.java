@@ -1,5 +1,6 @@
 package com.paloma.paloma.javaServer.services;
 
+import com.paloma.paloma.javaServer.caches.RoleCatalog;
 import com.paloma.paloma.javaServer.dataTransferObjects.requests.AddRoleRequest;
 import com.paloma.paloma.javaServer.dataTransferObjects.responses.UserRolesResponse;
 import com.paloma.paloma.javaServer.entities.Role;
@@ -7,12 +8,12 @@ import com.paloma.paloma.javaServer.entities.User;
 import com.paloma.paloma.javaServer.entities.UserRole;
 import com.paloma.paloma.javaServer.entities.enums.RoleType;
 import com.paloma.paloma.javaServer.exceptions.UserException;
-import com.paloma.paloma.javaServer.repositories.RoleRepository;
 import com.paloma.paloma.javaServer.repositories.UserRepository;
 import com.paloma.paloma.javaServer.repositories.UserRoleRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -33,7 +34,7 @@ class RoleManagementServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private RoleRepository roleRepository;
+    private RoleCatalog roleCatalog;
 
     @Mock
     private UserRoleRepository userRoleRepository;
@@ -80,8 +81,7 @@ class RoleManagementServiceTest {
         when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
         when(userRoleRepository.findByUserAndRoleType(testUser, RoleType.TRUSTED_CONTACT))
                 .thenReturn(Optional.empty());
-        when(roleRepository.findByRoleType(RoleType.TRUSTED_CONTACT))
-                .thenReturn(Optional.of(trustedContactRole));
+        when(roleCatalog.get(RoleType.TRUSTED_CONTACT)).thenReturn(trustedContactRole);
         when(userRoleRepository.save(any(UserRole.class))).thenReturn(testTrustedContactRole);
         when(userRoleRepository.findAllByUser(testUser))
                 .thenReturn(Arrays.asList(testUserRole, testTrustedContactRole));
@@ -216,8 +216,7 @@ class RoleManagementServiceTest {
         when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
         when(userRoleRepository.findByUserAndRoleType(testUser, RoleType.TRUSTED_CONTACT))
                 .thenReturn(Optional.empty());
-        when(roleRepository.findByRoleType(RoleType.TRUSTED_CONTACT))
-                .thenReturn(Optional.of(trustedContactRole));
+        when(roleCatalog.get(RoleType.TRUSTED_CONTACT)).thenReturn(trustedContactRole);
         when(userRoleRepository.findAllByUser(testUser))
                 .thenReturn(Collections.singletonList(testUserRole)); // Existing roles when updating primary
         when(userRoleRepository.save(any(UserRole.class))).thenReturn(testTrustedContactRole);
@@ -235,14 +234,12 @@ class RoleManagementServiceTest {
     }
 
     @Test
-    void testCreateRoleIfNotExists() throws UserException {
+    void testAddRoleUsesCatalogRole() throws UserException {
         // Arrange
         when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
         when(userRoleRepository.findByUserAndRoleType(testUser, RoleType.TRUSTED_CONTACT))
                 .thenReturn(Optional.empty());
-        when(roleRepository.findByRoleType(RoleType.TRUSTED_CONTACT))
-                .thenReturn(Optional.empty()); // Role doesn't exist
-        when(roleRepository.save(any(Role.class))).thenReturn(trustedContactRole);
+        when(roleCatalog.get(RoleType.TRUSTED_CONTACT)).thenReturn(trustedContactRole);
         when(userRoleRepository.save(any(UserRole.class))).thenReturn(testTrustedContactRole);
         when(userRoleRepository.findAllByUser(testUser))
                 .thenReturn(Arrays.asList(testUserRole, testTrustedContactRole));
@@ -255,8 +252,10 @@ class RoleManagementServiceTest {
         UserRolesResponse response = roleManagementService.addRoleToUser(request);
 
         // Assert
-        verify(roleRepository).save(any(Role.class)); // Verify a new role was created
+        ArgumentCaptor<UserRole> saved = ArgumentCaptor.forClass(UserRole.class);
+        verify(userRoleRepository).save(saved.capture());
+        assertSame(trustedContactRole, saved.getValue().getRole()); // the shared row, no new role is created
         assertNotNull(response);
         assertTrue(response.getRoles().contains(RoleType.TRUSTED_CONTACT));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.entities.ScoreHistory;
+import com.paloma.paloma.javaServer.repositories.DailyCheckinRepository;
+import com.paloma.paloma.javaServer.repositories.ScoreHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScoreHistoryServiceTest {
+
+    @Mock
+    private ScoreHistoryRepository scoreHistoryRepository;
+
+    @Mock
+    private DailyCheckinRepository dailyCheckinRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ScoreHistoryService scoreHistoryService;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        scoreHistoryService = new ScoreHistoryService(scoreHistoryRepository, dailyCheckinRepository, transactionManager);
+    }
+
+    @Test
+    void record_FirstCheckin_CreatesHistory() {
+        when(scoreHistoryRepository.findForUpdate(userId)).thenReturn(Optional.empty());
+
+        scoreHistoryService.record(userId, LocalDate.of(2026, 5, 1), 7.0);
+
+        ArgumentCaptor<ScoreHistory> saved = ArgumentCaptor.forClass(ScoreHistory.class);
+        verify(scoreHistoryRepository).save(saved.capture());
+        assertTrue(saved.getValue().isNew());
+        assertEquals(1, saved.getValue().getCheckinCount());
+        assertEquals(7.0, saved.getValue().getLastScore());
+    }
+
+    @Test
+    void record_FirstCheckinAfterEarlierOnes_SeedsHistoryFromCheckins() {
+        when(scoreHistoryRepository.findForUpdate(userId)).thenReturn(Optional.empty());
+        // the upsert of the new check-in ran before, in the same transaction
+        when(dailyCheckinRepository.findScoresByUserId(userId)).thenReturn(List.of(
+                score(LocalDate.of(2026, 4, 30), 5.0),
+                score(LocalDate.of(2026, 5, 1), 7.0)));
+
+        scoreHistoryService.record(userId, LocalDate.of(2026, 5, 1), 7.0);
+
+        ArgumentCaptor<ScoreHistory> saved = ArgumentCaptor.forClass(ScoreHistory.class);
+        verify(scoreHistoryRepository).save(saved.capture());
+        assertEquals(2, saved.getValue().getCheckinCount());
+        assertEquals(Optional.of(6.0), saved.getValue().allTimeAverage());
+        assertEquals(Optional.of(List.of(7.0, 5.0)), saved.getValue().latestScores(5));
+    }
+
+    @Test
+    void record_ExistingHistory_DoesNotReadCheckins() {
+        when(scoreHistoryRepository.findForUpdate(userId)).thenReturn(Optional.of(new ScoreHistory(userId)));
+
+        scoreHistoryService.record(userId, LocalDate.of(2026, 5, 1), 7.0);
+
+        verifyNoInteractions(dailyCheckinRepository);
+    }
+
+    @Test
+    void find_NoStoredHistory_EmptyWithoutReadingCheckins() {
+        when(scoreHistoryRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertTrue(scoreHistoryService.find(userId).isEmpty());
+        verifyNoInteractions(dailyCheckinRepository);
+    }
+
+    @Test
+    void rebuild_ReplacesStateWithStoredCheckins() {
+        ScoreHistory stale = new ScoreHistory(userId);
+        stale.record(LocalDate.of(2026, 4, 1), 1.0);
+        when(scoreHistoryRepository.findForUpdate(userId)).thenReturn(Optional.of(stale));
+        when(dailyCheckinRepository.findScoresByUserId(userId)).thenReturn(List.of(
+                score(LocalDate.of(2026, 5, 1), 6.0),
+                score(LocalDate.of(2026, 5, 2), 8.0)));
+
+        scoreHistoryService.rebuild(userId);
+
+        verify(scoreHistoryRepository).save(stale);
+        assertEquals(2, stale.getCheckinCount());
+        assertEquals(Optional.of(7.0), stale.allTimeAverage());
+        assertEquals(LocalDate.of(2026, 5, 2), stale.getLastDate());
+    }
+
+    @Test
+    void rebuildAll_RebuildsEachUserAndDropsOrphans() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        UUID other = UUID.randomUUID();
+        when(dailyCheckinRepository.findUserIdsWithCheckins()).thenReturn(List.of(userId, other));
+        when(scoreHistoryRepository.findForUpdate(any())).thenReturn(Optional.empty());
+        when(scoreHistoryRepository.deleteWithoutCheckins()).thenReturn(1);
+
+        assertEquals(2, scoreHistoryService.rebuildAll());
+
+        verify(dailyCheckinRepository).findScoresByUserId(userId);
+        verify(dailyCheckinRepository).findScoresByUserId(other);
+        verify(scoreHistoryRepository).deleteWithoutCheckins();
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    private static DailyCheckinRepository.DailyScore score(LocalDate date, double totalScore) {
+        return new DailyCheckinRepository.DailyScore() {
+            @Override
+            public LocalDate getDate() {
+                return date;
+            }
+
+            @Override
+            public Double getTotalScore() {
+                return totalScore;
+            }
+        };
+    }
+}
@@ -0,0 +1,149 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.entities.RevokedToken;
+import com.paloma.paloma.javaServer.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, 1_000);
+    }
+
+    @Test
+    void revoke_ThenIsRevoked() {
+        String tokenId = UUID.randomUUID().toString();
+
+        tokenRevocationService.revoke(tokenId, inMinutes(15));
+
+        assertTrue(tokenRevocationService.isRevoked(tokenId));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString()));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void revoke_InTransaction_DeniedOnlyAfterCommit() {
+        String tokenId = UUID.randomUUID().toString();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revoke(tokenId, inMinutes(15));
+            assertFalse(tokenRevocationService.isRevoked(tokenId));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(tokenRevocationService.isRevoked(tokenId));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revoke_RolledBack_NotDenied() {
+        String tokenId = UUID.randomUUID().toString();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revoke(tokenId, inMinutes(15));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertFalse(tokenRevocationService.isRevoked(tokenId));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void isRevoked_NeverReadsDatabase() {
+        tokenRevocationService.isRevoked(UUID.randomUUID().toString());
+        tokenRevocationService.isRevoked(null);
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void revoke_AlreadyExpiredToken_Ignored() {
+        String tokenId = UUID.randomUUID().toString();
+
+        tokenRevocationService.revoke(tokenId, inMinutes(-1));
+
+        assertFalse(tokenRevocationService.isRevoked(tokenId));
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void revoke_TokenWithoutId_Ignored() {
+        tokenRevocationService.revoke(null, inMinutes(15));
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+
+    @Test
+    void load_RestoresPersistedRevocations() {
+        String tokenId = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findByExpiresAtAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(new RevokedToken(tokenId, LocalDateTime.now().plusMinutes(10))));
+
+        tokenRevocationService.load();
+
+        assertTrue(tokenRevocationService.isRevoked(tokenId));
+    }
+
+    @Test
+    void clear_ForgetsAllRevocations() {
+        String tokenId = UUID.randomUUID().toString();
+        tokenRevocationService.revoke(tokenId, inMinutes(15));
+
+        tokenRevocationService.clear();
+
+        assertFalse(tokenRevocationService.isRevoked(tokenId));
+    }
+
+    @Test
+    void purgeExpired_DropsExpiredEntries() {
+        String expiredId = UUID.randomUUID().toString();
+        String liveId = UUID.randomUUID().toString();
+        when(revokedTokenRepository.findByExpiresAtAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(
+                        new RevokedToken(expiredId, LocalDateTime.now().plusNanos(1_000)),
+                        new RevokedToken(liveId, LocalDateTime.now().plusMinutes(10))));
+        tokenRevocationService.load();
+
+        await(LocalDateTime.now().plusNanos(2_000));
+        tokenRevocationService.purgeExpired();
+
+        assertFalse(tokenRevocationService.isRevoked(expiredId));
+        assertTrue(tokenRevocationService.isRevoked(liveId));
+        verify(revokedTokenRepository).deleteExpired(any(LocalDateTime.class));
+    }
+
+    private static Date inMinutes(int minutes) {
+        return new Date(System.currentTimeMillis() + minutes * 60_000L);
+    }
+
+    private static void await(LocalDateTime moment) {
+        while (!LocalDateTime.now().isAfter(moment)) {
+            Thread.onSpinWait();
+        }
+    }
+}
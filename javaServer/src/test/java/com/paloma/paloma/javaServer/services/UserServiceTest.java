@@ -0,0 +1,393 @@
+package com.paloma.paloma.javaServer.services;
+
+import com.paloma.paloma.javaServer.caches.RoleCatalog;
+import com.paloma.paloma.javaServer.dataTransferObjects.requests.LoginRequest;
+import com.paloma.paloma.javaServer.dataTransferObjects.requests.RegisterRequest;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.AddMedicationLogResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.DailyCheckinResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.GetOverallScoresResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.LoginResponse;
+import com.paloma.paloma.javaServer.dataTransferObjects.responses.UpdateAlertSensitivityResponse;
+import com.paloma.paloma.javaServer.entities.AlertSensitivity;
+import com.paloma.paloma.javaServer.entities.AuthCred;
+import com.paloma.paloma.javaServer.entities.DailyCheckin;
+import com.paloma.paloma.javaServer.entities.MedLog;
+import com.paloma.paloma.javaServer.entities.RefreshAuth;
+import com.paloma.paloma.javaServer.entities.Medication;
+import com.paloma.paloma.javaServer.entities.Role;
+import com.paloma.paloma.javaServer.entities.ScoreHistory;
+import com.paloma.paloma.javaServer.entities.User;
+import com.paloma.paloma.javaServer.entities.UserRole;
+import com.paloma.paloma.javaServer.entities.enums.RoleType;
+import com.paloma.paloma.javaServer.entities.enums.SensitivityLevel;
+import com.paloma.paloma.javaServer.exceptions.AuthenticationException;
+import com.paloma.paloma.javaServer.exceptions.UserException;
+import com.paloma.paloma.javaServer.repositories.AlertSensitivityRepository;
+import com.paloma.paloma.javaServer.repositories.AuthCredRepository;
+import com.paloma.paloma.javaServer.repositories.DailyCheckinRepository;
+import com.paloma.paloma.javaServer.repositories.MedicationRepository;
+import com.paloma.paloma.javaServer.repositories.RefreshAuthRepository;
+import com.paloma.paloma.javaServer.repositories.UserRepository;
+import com.paloma.paloma.javaServer.repositories.UserRoleRepository;
+import com.paloma.paloma.javaServer.utilites.JwtUtil;
+import com.paloma.paloma.javaServer.utilites.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthCredRepository authCredentialsRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private UserRoleRepository userRoleRepository;
+
+    @Mock
+    private RoleCatalog roleCatalog;
+
+    @Mock
+    private ActivityLogWriter activityLogWriter;
+
+    @Mock
+    private ScoreHistoryService scoreHistoryService;
+
+    @Mock
+    private DailyCheckinRepository dailyCheckinRepository;
+
+    @Mock
+    private AlertSensitivityRepository alertSensitivityRepository;
+
+    @Mock
+    private MedicationRepository medicationRepository;
+
+    @Mock
+    private RefreshAuthRepository refreshAuthRepository;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @InjectMocks
+    private UserService userService;
+
+    private RegisterRequest registerRequest;
+
+    @BeforeEach
+    void setUp() {
+        registerRequest = new RegisterRequest();
+        registerRequest.setUsername("Bob");
+        registerRequest.setPassword("password123");
+        registerRequest.setEmail("Bob@Example.com");
+        registerRequest.setFullName("Bob Builder");
+        registerRequest.setRoleType(RoleType.USER);
+    }
+
+    @Test
+    void login_WithEmail_LooksUpNormalizedEmailOnly() {
+        when(userRepository.findByEmailNormalized("bob@example.com")).thenReturn(Optional.empty());
+
+        assertThrows(AuthenticationException.class,
+                () -> userService.login(new LoginRequest(" Bob@Example.com ", "password123")));
+
+        verify(userRepository).findByEmailNormalized("bob@example.com");
+        verify(userRepository, never()).findByUsernameNormalized(anyString());
+        verifyNoInteractions(passwordHashingService);
+    }
+
+    @Test
+    void login_WithUsername_LooksUpNormalizedUsernameOnly() {
+        when(userRepository.findByUsernameNormalized("bob")).thenReturn(Optional.empty());
+
+        assertThrows(AuthenticationException.class,
+                () -> userService.login(new LoginRequest("BOB", "password123")));
+
+        verify(userRepository).findByUsernameNormalized("bob");
+        verify(userRepository, never()).findByEmailNormalized(anyString());
+    }
+
+    @Test
+    void login_ReturnsRefreshTokenWhoseDigestIsStored() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        AuthCred auth = new AuthCred();
+        auth.setPasswordHash("hash");
+        RefreshAuth previous = new RefreshAuth();
+        previous.setUser(user);
+        previous.setToken("previous-token");
+        when(userRepository.findByUsernameNormalized("bob")).thenReturn(Optional.of(user));
+        when(authCredentialsRepository.findByUserId(user.getId())).thenReturn(auth);
+        when(passwordHashingService.matches("password123", "hash")).thenReturn(true);
+        when(refreshAuthRepository.findByUserId(user.getId())).thenReturn(Optional.of(previous));
+        when(jwtUtil.generateAccessToken(user.getId())).thenReturn("access-token");
+
+        LoginResponse response = userService.login(new LoginRequest("bob", "password123"));
+
+        assertEquals("access-token", response.getAccessToken());
+        assertNotNull(response.getRefreshToken());
+        assertNotEquals("previous-token", response.getRefreshToken());
+        assertArrayEquals(TokenDigest.sha256(response.getRefreshToken()), previous.getTokenHash());
+        verify(refreshAuthRepository).save(previous);
+    }
+
+    @Test
+    void login_NullIdentifier_NoLookup() {
+        assertThrows(AuthenticationException.class,
+                () -> userService.login(new LoginRequest(null, "password123")));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void register_UsesCatalogRoleAndFlushesOnce() throws UserException {
+        Role userRole = new Role(UUID.randomUUID(), RoleType.USER, null);
+        when(roleCatalog.get(RoleType.USER)).thenReturn(userRole);
+        when(passwordHashingService.encode("password123")).thenReturn("hash");
+
+        userService.register(registerRequest);
+
+        ArgumentCaptor<UserRole> saved = ArgumentCaptor.forClass(UserRole.class);
+        verify(userRoleRepository).saveAndFlush(saved.capture());
+        assertSame(userRole, saved.getValue().getRole());
+        assertTrue(saved.getValue().getPrimary());
+        verify(userRepository).save(any(User.class));
+        verify(authCredentialsRepository).save(any(AuthCred.class));
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void register_EmailTakenInDifferentCase_Rejected() {
+        when(roleCatalog.get(RoleType.USER)).thenReturn(new Role(UUID.randomUUID(), RoleType.USER, null));
+        when(userRoleRepository.saveAndFlush(any(UserRole.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry 'bob@example.com' for key 'users.uk_users_email_normalized'")));
+
+        UserException e = assertThrows(UserException.class, () -> userService.register(registerRequest));
+
+        assertEquals("There is already an account with the email address: Bob@Example.com", e.getMessage());
+    }
+
+    @Test
+    void register_UsernameTakenInDifferentCase_Rejected() {
+        // the duplicate value mentions "email" but only the index name decides the message
+        registerRequest.setUsername("Email");
+        when(roleCatalog.get(RoleType.USER)).thenReturn(new Role(UUID.randomUUID(), RoleType.USER, null));
+        when(userRoleRepository.saveAndFlush(any(UserRole.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry 'email' for key 'users.uk_users_username_normalized'")));
+
+        UserException e = assertThrows(UserException.class, () -> userService.register(registerRequest));
+
+        assertEquals("There is already an account with the username: Email", e.getMessage());
+    }
+
+    @Test
+    void register_UsernameWithAt_Rejected() {
+        registerRequest.setUsername("bob@home");
+
+        assertThrows(UserException.class, () -> userService.register(registerRequest));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updateUsername_WithAt_Rejected() {
+        User user = new User();
+        user.setUsername("bob");
+
+        UserException e = assertThrows(UserException.class, () -> userService.updateUsername(user, "bob@home"));
+
+        assertEquals("Username cannot contain '@'", e.getMessage());
+        assertEquals("bob", user.getUsername());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updateUsername_TakenInDifferentCase_Rejected() {
+        User user = new User();
+        user.setUsername("bob");
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry 'alice' for key 'users.uk_users_username_normalized'")));
+
+        UserException e = assertThrows(UserException.class, () -> userService.updateUsername(user, "Alice"));
+
+        assertEquals("There is already an account with the username: Alice", e.getMessage());
+    }
+
+    @Test
+    void updateEmail_WithoutAt_Rejected() {
+        User user = new User();
+        user.setEmail("bob@example.com");
+
+        UserException e = assertThrows(UserException.class, () -> userService.updateEmail(user, "bob"));
+
+        assertEquals("Invalid email address: bob", e.getMessage());
+        assertEquals("bob@example.com", user.getEmail());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updateEmail_TakenInDifferentCase_Rejected() {
+        User user = new User();
+        user.setEmail("bob@example.com");
+        when(userRepository.saveAndFlush(user)).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLIntegrityConstraintViolationException(
+                        "Duplicate entry 'alice@example.com' for key 'users.uk_users_email_normalized'")));
+
+        UserException e = assertThrows(UserException.class,
+                () -> userService.updateEmail(user, "Alice@Example.com"));
+
+        assertEquals("There is already an account with the email address: Alice@Example.com", e.getMessage());
+    }
+
+    @Test
+    void dailyCheckin_WrittenThroughGroupCommit() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+
+        DailyCheckinResponse response = userService.dailyCheckin(user, 8, 7, 6, 2, "fine");
+
+        assertTrue(response.isSuccess());
+        ArgumentCaptor<DailyCheckin> checkin = ArgumentCaptor.forClass(DailyCheckin.class);
+        verify(activityLogWriter).upsert(checkin.capture());
+        assertSame(user, checkin.getValue().getUser());
+        assertEquals(Integer.valueOf(8), checkin.getValue().getMoodScore());
+    }
+
+    @Test
+    void dailyCheckin_RejectedRow_ReportedToCaller() {
+        doThrow(new IllegalStateException("Timed out waiting for the write to commit"))
+                .when(activityLogWriter).upsert(any(DailyCheckin.class));
+
+        DailyCheckinResponse response = userService.dailyCheckin(new User(), 8, 7, 6, 2, null);
+
+        assertFalse(response.isSuccess());
+        assertEquals("Timed out waiting for the write to commit", response.getMessage());
+    }
+
+    @Test
+    void getOverallScores_ReadFromScoreHistory() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        ScoreHistory history = new ScoreHistory(user.getId());
+        history.record(LocalDate.now().minusDays(1), 6.0);
+        history.record(LocalDate.now(), 7.5);
+        when(scoreHistoryService.find(user.getId())).thenReturn(Optional.of(history));
+
+        GetOverallScoresResponse response = userService.getOverallScores(user, 2);
+
+        assertEquals(List.of(7.5, 6.0), response.getScores());
+        assertEquals("Scores retrieved successfully", response.getMessage());
+        verifyNoInteractions(dailyCheckinRepository);
+    }
+
+    @Test
+    void getOverallScores_BeyondHistoryWindow_QueriesCheckins() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        when(scoreHistoryService.find(user.getId())).thenReturn(Optional.empty());
+        when(dailyCheckinRepository.findLatestOverallScoresByUserId(eq(user.getId()), any(LocalDate.class), any()))
+                .thenReturn(List.of(5.0));
+        when(dailyCheckinRepository.findLatestOverallScoresByUserId(eq(user.getId()), any(PageRequest.class)))
+                .thenReturn(List.of(5.0));
+
+        GetOverallScoresResponse response = userService.getOverallScores(user, 7);
+
+        assertEquals(List.of(5.0), response.getScores());
+        assertEquals("Only 1 days of scores were found.", response.getMessage());
+    }
+
+    @Test
+    void getOverallScores_DailyCheckins_OnlyRecentDaysQueried() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        List<Double> week = List.of(7.0, 6.5, 6.0, 5.5, 5.0, 4.5, 4.0);
+        when(scoreHistoryService.find(user.getId())).thenReturn(Optional.empty());
+        when(dailyCheckinRepository.findLatestOverallScoresByUserId(user.getId(), LocalDate.now().minusDays(6),
+                PageRequest.of(0, 7))).thenReturn(week);
+
+        GetOverallScoresResponse response = userService.getOverallScores(user, 7);
+
+        assertEquals(week, response.getScores());
+        verify(dailyCheckinRepository, never()).findLatestOverallScoresByUserId(any(UUID.class), any(PageRequest.class));
+    }
+
+    @Test
+    void updateSensitivity_UpdatesRowOfUser() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        AlertSensitivity alertSensitivity = new AlertSensitivity(UUID.randomUUID(), user, SensitivityLevel.LOW);
+        when(alertSensitivityRepository.findByUserId(user.getId())).thenReturn(Optional.of(alertSensitivity));
+
+        UpdateAlertSensitivityResponse response = userService.updateSensitivity(user, SensitivityLevel.HIGH);
+
+        assertTrue(response.isSuccess());
+        assertEquals(SensitivityLevel.HIGH, alertSensitivity.getSensitivityLevel());
+        verify(alertSensitivityRepository).save(alertSensitivity);
+    }
+
+    @Test
+    void updateSensitivity_NoRow_ReportsFailure() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        when(alertSensitivityRepository.findByUserId(user.getId())).thenReturn(Optional.empty());
+
+        UpdateAlertSensitivityResponse response = userService.updateSensitivity(user, SensitivityLevel.HIGH);
+
+        assertFalse(response.isSuccess());
+        assertEquals("Alert sensitivity not found", response.getMessage());
+        verify(alertSensitivityRepository, never()).save(any());
+    }
+
+    @Test
+    void addMedicationLog_OneLookupAndOneUpsert_LogsNotLoaded() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        // never initialized, the way a medication loaded without its logs looks
+        Medication medication = new Medication();
+        medication.setId(UUID.randomUUID());
+        when(medicationRepository.findByNameAndUserId("lisinopril", user.getId())).thenReturn(Optional.of(medication));
+
+        for (int i = 0; i < 3; i++) {
+            AddMedicationLogResponse response = userService.addMedicationLog(user, "lisinopril");
+            assertTrue(response.isSuccess());
+        }
+
+        verify(medicationRepository, times(3)).findByNameAndUserId("lisinopril", user.getId());
+        verifyNoMoreInteractions(medicationRepository);
+        ArgumentCaptor<MedLog> medLog = ArgumentCaptor.forClass(MedLog.class);
+        verify(activityLogWriter, times(3)).upsert(medLog.capture());
+        assertSame(medication, medLog.getValue().getMedication());
+        assertEquals(LocalDate.now(), medLog.getValue().getDate());
+        assertNull(medication.getMedLogs());
+    }
+}
@@ -0,0 +1,66 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_AddedValues_AlwaysTrue() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            String value = UUID.randomUUID().toString();
+            values.add(value);
+            filter.add(value);
+        }
+
+        values.forEach(value -> assertTrue(filter.mightContain(value)));
+    }
+
+    @Test
+    void mightContain_EmptyFilter_False() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertFalse(filter.mightContain(UUID.randomUUID().toString()));
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        // generous bound so the test is not flaky; the expected rate is about 1%
+        assertTrue(falsePositives < probes * 0.03, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void constructor_SizesFromExpectedValues() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        // about 9.6 bits and 7 hashes per value for a 1% rate
+        assertTrue(filter.bitCount() >= 95_000);
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    void constructor_InvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1));
+    }
+}
@@ -0,0 +1,168 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitterTest {
+
+    private final List<List<Integer>> groups = Collections.synchronizedList(new ArrayList<>());
+    private GroupCommitter<Integer> committer;
+
+    @AfterEach
+    void tearDown() {
+        if (committer != null) {
+            committer.close();
+        }
+    }
+
+    @Test
+    void submit_ConcurrentItems_WrittenInGroups() throws Exception {
+        committer = new GroupCommitter<>("test-writer", Duration.ofMillis(50), 100, 1000, groups::add);
+
+        List<CompletableFuture<Void>> results = IntStream.range(0, 40).parallel()
+                .mapToObj(committer::submit)
+                .toList();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(40, groups.stream().mapToInt(List::size).sum());
+        assertTrue(groups.size() < 40, "concurrent items should share groups, got " + groups.size());
+    }
+
+    @Test
+    void submit_GroupNeverExceedsMaxSize() throws Exception {
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Consumer<List<Integer>> writer = group -> {
+            firstWriteStarted.countDown();
+            await(release);
+            groups.add(group);
+        };
+        committer = new GroupCommitter<>("test-writer", Duration.ZERO, 3, 1000, writer);
+
+        CompletableFuture<Void> first = committer.submit(0);
+        firstWriteStarted.await(5, TimeUnit.SECONDS);
+        // these pile up while the first group is being written
+        List<CompletableFuture<Void>> rest = IntStream.range(1, 8).mapToObj(committer::submit).toList();
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(rest.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(groups.stream().allMatch(group -> group.size() <= 3));
+        assertEquals(List.of(1, 2, 3), groups.get(1));
+    }
+
+    @Test
+    void submit_FailingItem_OnlyFailsItsOwnCaller() throws Exception {
+        Consumer<List<Integer>> writer = group -> {
+            if (group.contains(13)) {
+                throw new IllegalArgumentException("unlucky");
+            }
+            groups.add(group);
+        };
+        committer = new GroupCommitter<>("test-writer", Duration.ofMillis(50), 100, 1000, writer);
+
+        List<CompletableFuture<Void>> results = IntStream.range(10, 16).mapToObj(committer::submit).toList();
+
+        for (int i = 0; i < results.size(); i++) {
+            CompletableFuture<Void> result = results.get(i);
+            if (i == 3) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertEquals("unlucky", e.getCause().getMessage());
+            } else {
+                assertDoesNotThrow(() -> result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertFalse(groups.stream().anyMatch(group -> group.contains(13)));
+    }
+
+    @Test
+    void submit_QueueFull_FailsImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        committer = new GroupCommitter<>("test-writer", Duration.ZERO, 1, 1, group -> await(release));
+
+        committer.submit(1);
+        // the flusher takes the first item; wait until it is blocked writing it
+        Thread.sleep(100);
+        CompletableFuture<Void> queued = committer.submit(2);
+        CompletableFuture<Void> rejected = committer.submit(3);
+
+        assertTrue(rejected.isCompletedExceptionally());
+        release.countDown();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void withdraw_QueuedItem_NeverWritten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        committer = new GroupCommitter<>("test-writer", Duration.ZERO, 1, 10, group -> {
+            await(release);
+            groups.add(group);
+        });
+
+        CompletableFuture<Void> first = committer.submit(1);
+        // the flusher takes the first item; wait until it is blocked writing it
+        Thread.sleep(100);
+        CompletableFuture<Void> queued = committer.submit(2);
+
+        assertTrue(committer.withdraw(queued));
+        assertTrue(queued.isCompletedExceptionally());
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> next = committer.submit(3);
+        next.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of(1), List.of(3)), groups);
+    }
+
+    @Test
+    void withdraw_ItemBeingWritten_Refused() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        committer = new GroupCommitter<>("test-writer", Duration.ZERO, 1, 10, group -> {
+            writing.countDown();
+            await(release);
+            groups.add(group);
+        });
+
+        CompletableFuture<Void> result = committer.submit(1);
+        writing.await(5, TimeUnit.SECONDS);
+
+        assertFalse(committer.withdraw(result));
+        release.countDown();
+        result.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of(1)), groups);
+    }
+
+    @Test
+    void close_WritesQueuedItemsAndRejectsNewOnes() throws Exception {
+        committer = new GroupCommitter<>("test-writer", Duration.ofMillis(20), 100, 1000, groups::add);
+        CompletableFuture<Void> queued = committer.submit(1);
+
+        committer.close();
+
+        assertTrue(queued.isDone());
+        queued.get();
+        assertTrue(committer.submit(2).isCompletedExceptionally());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -34,15 +34,6 @@ class JwtUtilTest {
         assertEquals(3, token.split("\\.").length); // JWT has 3 parts separated by dots
     }
 
-    @Test
-    void generateRefreshToken_Success() {
-        String token = jwtUtil.generateRefreshToken(testUserId);
-
-        assertNotNull(token);
-        assertFalse(token.isEmpty());
-        assertEquals(3, token.split("\\.").length); // JWT has 3 parts separated by dots
-    }
-
     @Test
     void validateTokenAndGetUserId_ValidAccessToken() {
         String token = jwtUtil.generateAccessToken(testUserId);
@@ -52,15 +43,6 @@ class JwtUtilTest {
         assertEquals(testUserId, extractedUserId);
     }
 
-    @Test
-    void validateTokenAndGetUserId_ValidRefreshToken() {
-        String token = jwtUtil.generateRefreshToken(testUserId);
-
-        UUID extractedUserId = jwtUtil.validateTokenAndGetUserId(token);
-
-        assertEquals(testUserId, extractedUserId);
-    }
-
     @Test
     void validateTokenAndGetUserId_InvalidToken() {
         String invalidToken = "invalid.token.here";
@@ -121,13 +103,16 @@ class JwtUtilTest {
     }
 
     @Test
-    void refreshTokenExpirationTime() {
-        String token = jwtUtil.generateRefreshToken(testUserId);
+    void accessTokenExpiresAfterFifteenMinutes() {
+        long before = System.currentTimeMillis();
+        String token = jwtUtil.generateAccessToken(testUserId);
+        long after = System.currentTimeMillis();
 
-        // Verify token is valid now
-        assertDoesNotThrow(() -> jwtUtil.validateTokenAndGetUserId(token));
+        long expiration = jwtUtil.validateToken(token).expiration().getTime();
 
-        assertNotNull(token);
+        // exp is stored in whole seconds
+        assertTrue(expiration > before + 1000 * 60 * 15 - 1000);
+        assertTrue(expiration <= after + 1000 * 60 * 15);
     }
 
     @Test
@@ -139,15 +124,6 @@ class JwtUtilTest {
         assertNotEquals(token1, token2);
     }
 
-    @Test
-    void refreshTokensAreUnique() {
-        String token1 = jwtUtil.generateRefreshToken(testUserId);
-        String token2 = jwtUtil.generateRefreshToken(testUserId);
-
-        // Tokens should be different due to different issued times
-        assertNotEquals(token1, token2);
-    }
-
     @Test
     void validateTokenAndGetUserId_NullToken() {
         assertThrows(JwtException.class, () -> jwtUtil.validateTokenAndGetUserId(null));
@@ -171,4 +147,36 @@ class JwtUtilTest {
         assertEquals(userId1, jwtUtil.validateTokenAndGetUserId(token1));
         assertEquals(userId2, jwtUtil.validateTokenAndGetUserId(token2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validateToken_RepeatedValidationIsServedFromCache() {
+        String token = jwtUtil.generateAccessToken(testUserId);
+
+        JwtUtil.VerifiedToken first = jwtUtil.validateToken(token);
+        JwtUtil.VerifiedToken second = jwtUtil.validateToken(token);
+
+        assertEquals(testUserId, second.userId());
+        assertEquals(first, second);
+        assertEquals(1, jwtUtil.verifiedTokenCacheStats().missCount());
+        assertEquals(1, jwtUtil.verifiedTokenCacheStats().hitCount());
+    }
+
+    @Test
+    void validateToken_ExposesTokenIdAndExpiration() {
+        String token = jwtUtil.generateAccessToken(testUserId);
+
+        JwtUtil.VerifiedToken verified = jwtUtil.validateToken(token);
+
+        assertNotNull(verified.tokenId());
+        assertTrue(verified.expiration().after(new Date()));
+    }
+
+    @Test
+    void validateToken_TamperedTokenRejectedAfterOriginalWasCached() {
+        String validToken = jwtUtil.generateAccessToken(testUserId);
+        jwtUtil.validateToken(validToken);
+        String tamperedToken = validToken.substring(0, validToken.length() - 1) + "x";
+
+        assertThrows(JwtException.class, () -> jwtUtil.validateToken(tamperedToken));
+    }
+}
@@ -0,0 +1,47 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_RoundTripsDateAndId() {
+        KeysetCursor<LocalDate> cursor = new KeysetCursor<>(LocalDate.of(2026, 10, 18), UUID.randomUUID());
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode(), LocalDate::parse));
+    }
+
+    @Test
+    void encode_RoundTripsDateTimeWithFraction() {
+        KeysetCursor<LocalDateTime> cursor = new KeysetCursor<>(
+                LocalDateTime.of(2026, 10, 18, 9, 30, 15, 123_456_000), UUID.randomUUID());
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode(), LocalDateTime::parse));
+    }
+
+    @Test
+    void encode_SamePositionSameTokenAndUrlSafe() {
+        UUID id = UUID.randomUUID();
+        String token = new KeysetCursor<>(LocalDate.of(2026, 10, 18), id).encode();
+
+        assertEquals(token, new KeysetCursor<>(LocalDate.of(2026, 10, 18), id).encode());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_TamperedToken_Rejected() {
+        String wrongPosition = Base64.getUrlEncoder().encodeToString(("yesterday~" + UUID.randomUUID()).getBytes());
+        String wrongId = Base64.getUrlEncoder().encodeToString("2026-10-18~42".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(wrongPosition, LocalDate::parse));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(wrongId, LocalDate::parse));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("%%%", LocalDate::parse));
+    }
+}
@@ -0,0 +1,86 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import com.paloma.paloma.javaServer.exceptions.QueryBudgetExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryTrackerTest {
+
+    private static final String SELECT_USER = "select u.id,u.username from users u where u.id=?";
+    private static final String SELECT_ROLES = "select r.id,r.role_type from roles r where r.id in (?,?)";
+
+    @Test
+    void scope_CountsStatementsAndRepeats() {
+        try (QueryTracker.Scope scope = QueryTracker.open("GET /test", 3, false)) {
+            QueryTracker.statementPrepared(SELECT_ROLES);
+            for (int i = 0; i < 5; i++) {
+                QueryTracker.statementPrepared(SELECT_USER);
+            }
+
+            assertEquals(6, scope.getStatements());
+            assertTrue(scope.isOverBudget());
+            assertEquals(Map.of(SELECT_USER, 5), scope.getRepeatedStatements(5));
+        }
+    }
+
+    @Test
+    void scope_Enforcing_ThrowsOnStatementOverBudget() {
+        try (QueryTracker.Scope scope = QueryTracker.open("GET /test", 1, true)) {
+            QueryTracker.statementPrepared(SELECT_USER);
+
+            assertThrows(QueryBudgetExceededException.class, () -> QueryTracker.statementPrepared(SELECT_USER));
+            assertEquals(2, scope.getStatements());
+        }
+    }
+
+    @Test
+    void scope_Nested_CountsSeparatelyAndRestoresOuter() {
+        try (QueryTracker.Scope outer = QueryTracker.open("outer", 10, false)) {
+            QueryTracker.statementPrepared(SELECT_USER);
+            try (QueryTracker.Scope inner = QueryTracker.open("inner", 10, false)) {
+                QueryTracker.statementPrepared(SELECT_USER);
+                assertEquals(1, inner.getStatements());
+            }
+            QueryTracker.statementPrepared(SELECT_USER);
+
+            assertEquals(2, outer.getStatements());
+        }
+    }
+
+    @Test
+    void scope_ClosedOnAnotherThread_NoLongerCountsOnOpeningThread() throws InterruptedException {
+        QueryTracker.Scope scope = QueryTracker.open("GET /test", 1, true);
+        Thread closer = new Thread(scope::close);
+        closer.start();
+        closer.join();
+
+        QueryTracker.statementPrepared(SELECT_USER);
+        QueryTracker.statementPrepared(SELECT_USER);
+        assertEquals(0, scope.getStatements());
+
+        try (QueryTracker.Scope next = QueryTracker.open("GET /next", 10, false)) {
+            QueryTracker.statementPrepared(SELECT_USER);
+            assertEquals(1, next.getStatements());
+        }
+        QueryTracker.statementPrepared(SELECT_USER);
+        assertEquals(0, scope.getStatements());
+    }
+
+    @Test
+    void statementPrepared_NoScope_NothingCounted() {
+        QueryTracker.statementPrepared(SELECT_USER);
+
+        try (QueryTracker.Scope scope = QueryTracker.open("GET /test", 1, true)) {
+            assertEquals(0, scope.getStatements());
+        }
+    }
+
+    @Test
+    void bindCount_CountsPlaceholders() {
+        assertEquals(2, QueryTracker.bindCount(SELECT_ROLES));
+        assertEquals(0, QueryTracker.bindCount("select 1"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.paloma.paloma.javaServer.utilites;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void tryConsume_AllowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 100, now::get);
+
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void tryConsume_ReportsWaitUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 100, now::get);
+        bucket.tryConsume();
+
+        now.addAndGet(30);
+
+        assertEquals(70, bucket.tryConsume());
+    }
+
+    @Test
+    void tryConsume_RefillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, 100, now::get);
+        bucket.tryConsume();
+        bucket.tryConsume();
+        assertTrue(bucket.tryConsume() > 0);
+
+        now.addAndGet(100);
+
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void tryConsume_IdleBucketDoesNotExceedCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 100, now::get);
+
+        now.addAndGet(10_000);
+
+        assertEquals(0, bucket.tryConsume());
+        assertEquals(0, bucket.tryConsume());
+        assertTrue(bucket.tryConsume() > 0);
+    }
+
+    @Test
+    void constructor_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 100, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, now::get));
+    }
+}